@@ -5,6 +5,7 @@ plugins {
 	kotlin("plugin.allopen") version "1.9.23"
 	id("org.springframework.boot") version "3.2.0"  // ИЗМЕНИЛ ВЕРСИЮ на 3.2.0
 	id("io.spring.dependency-management") version "1.1.4"  // ИЗМЕНИЛ ВЕРСИЮ
+	id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "ru.hogwarts"
@@ -24,12 +25,24 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("org.springframework.boot:spring-boot-starter-aop")
+	implementation("org.springframework.boot:spring-boot-starter-cache")
+	implementation("org.flywaydb:flyway-core")
+	implementation("org.hibernate.orm:hibernate-jcache")
+	implementation("com.github.ben-manes.caffeine:caffeine")
+	implementation("com.github.ben-manes.caffeine:jcache")
 
 	implementation("com.fasterxml.jackson.module:jackson-module-kotlin")
+	implementation("com.fasterxml.jackson.module:jackson-module-blackbird")
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-smile")
+	implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-cbor")
 	implementation("org.jetbrains.kotlin:kotlin-reflect")
 
 	implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.5.0")
 
+	implementation("org.hibernate.orm:hibernate-micrometer")
+	runtimeOnly("io.micrometer:micrometer-registry-prometheus")
 	runtimeOnly("org.postgresql:postgresql")
 
 	developmentOnly("org.springframework.boot:spring-boot-devtools")
@@ -40,7 +53,10 @@ dependencies {
 	testImplementation("org.mockito:mockito-core")
 	testImplementation("org.mockito:mockito-junit-jupiter")
 	testImplementation("org.jetbrains.kotlin:kotlin-test-junit5")
+	testRuntimeOnly("com.h2database:h2")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+	jmh("com.h2database:h2")
 }
 
 allOpen {
@@ -49,6 +65,30 @@ allOpen {
 	annotation("jakarta.persistence.Embeddable")
 }
 
+// Бенчмарки: ./gradlew jmh (фильтр: -Pjmh.includes=StudentServiceBenchmark)
+jmh {
+	jmhVersion = "1.37"
+	includes = providers.gradleProperty("jmh.includes").map { listOf(it) }.orElse(listOf(".*"))
+	profilers = listOf("gc")
+	resultFormat = "JSON"
+	resultsFile = layout.buildDirectory.file("results/jmh/results.json")
+	// -Pbench.datasource.url=jdbc:postgresql://... переключает бенчмарки с H2 на PostgreSQL
+	jvmArgsAppend = providers.gradlePropertiesPrefixedBy("bench.")
+		.map { properties -> properties.map { (key, value) -> "-D$key=$value" } }
+}
+
+// Нагрузочный прогон platform vs virtual threads: ./gradlew loadTest -PloadTest.javaVersion=21
+tasks.register<JavaExec>("loadTest") {
+	group = "benchmark"
+	description = "Compares throughput and p99 latency of platform and virtual thread modes"
+	classpath = sourceSets["jmh"].runtimeClasspath
+	mainClass = "ru.hogwarts.school.benchmark.ThreadModeLoadTest"
+	args = providers.gradleProperty("loadTest.args").map { it.split(" ") }.getOrElse(emptyList())
+	javaLauncher = javaToolchains.launcherFor {
+		languageVersion = JavaLanguageVersion.of(providers.gradleProperty("loadTest.javaVersion").getOrElse("17"))
+	}
+}
+
 tasks.withType<Test> {
 	useJUnitPlatform()
 }
@@ -0,0 +1,64 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Вставка студентов по одному (одна транзакция на строку, как при POST /student)
+ * против пакетной вставки через POST /student/batch. Результат — строк в секунду.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        studentService = context.getBean(StudentService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long singleRow() {
+        long sum = 0;
+        for (Student student : newStudents()) {
+            sum += studentService.createStudent(student).getId();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<BatchItemResult> batch() {
+        return studentService.createStudents(newStudents());
+    }
+
+    private static List<Student> newStudents() {
+        List<Student> students = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            students.add(new Student("Imported_" + i, 11 + i % 8));
+        }
+        return students;
+    }
+}
@@ -0,0 +1,74 @@
+package ru.hogwarts.school.benchmark;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import ru.hogwarts.school.SchoolApplication;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Поднимает приложение для бенчмарков на встроенной H2 в режиме совместимости с PostgreSQL,
+ * чтобы бенчмарки запускались без внешней БД. Схему, как и в приложении, создаёт Flyway
+ * (индексы, последовательности), Hibernate её только проверяет.
+ * С {@code -Dbench.datasource.url=jdbc:postgresql://...} (и {@code bench.datasource.username/password})
+ * бенчмарки идут на указанный PostgreSQL; перед миграцией схема там очищается, поэтому нужна отдельная БД.
+ */
+final class BenchmarkApplication {
+    static final String POSTGRES_URL_PROPERTY = "bench.datasource.url";
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraArgs) {
+        return start(WebApplicationType.NONE, extraArgs);
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... extraArgs) {
+        List<String> args = new ArrayList<>(usePostgres() ? List.of(
+                "--spring.datasource.url=" + System.getProperty(POSTGRES_URL_PROPERTY),
+                "--spring.datasource.username=" + System.getProperty("bench.datasource.username", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("bench.datasource.password", ""),
+                "--spring.flyway.clean-disabled=false"
+        ) : List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--school.search.engine=memory"
+        ));
+        args.addAll(List.of(
+                "--spring.flyway.enabled=true",
+                "--spring.jpa.hibernate.ddl-auto=validate",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        ));
+        args.addAll(List.of(extraArgs));
+
+        // devtools перезапускает приложение в отдельном classloader, в бенчмарках это не нужно
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplication application = new SpringApplication(SchoolApplication.class);
+        application.setWebApplicationType(webApplicationType);
+        if (usePostgres()) {
+            // Каждый прогон начинается с пустой схемы, как при create-drop, но через миграции
+            application.addInitializers(context -> ((GenericApplicationContext) context).registerBean(
+                    FlywayMigrationStrategy.class, () -> flyway -> {
+                        flyway.clean();
+                        flyway.migrate();
+                    }));
+        }
+        return application.run(args.toArray(String[]::new));
+    }
+
+    static boolean usePostgres() {
+        return System.getProperty(POSTGRES_URL_PROPERTY) != null;
+    }
+}
@@ -0,0 +1,87 @@
+package ru.hogwarts.school.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Много потоков одновременно читают студентов одного факультета — как клиенты при публикации
+ * расписания. С объединением (coalescing=true) одинаковые одновременные вызовы идут в БД один раз:
+ * после каждой итерации печатается число SQL-запросов на вызов, без объединения оно равно 1.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Threads(32)
+@Fork(1)
+public class CoalescingBenchmark {
+
+    @Param({"true", "false"})
+    private boolean coalescing;
+
+    @Param({"2000"})
+    private int students;
+
+    private ConfigurableApplicationContext context;
+    private FacultyService facultyService;
+    private Statistics statistics;
+    private Long facultyId;
+    private final LongAdder calls = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(
+                "--school.coalescing.enabled=" + coalescing,
+                "--spring.jpa.properties.hibernate.generate_statistics=true");
+        facultyService = context.getBean(FacultyService.class);
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        Faculty faculty = facultyService.createFaculty(new Faculty("Coalesced", "Gold"));
+        facultyId = faculty.getId();
+        List<Student> chunk = new ArrayList<>();
+        for (int i = 0; i < students; i++) {
+            Student student = new Student("Student_" + i, 11 + i % 7);
+            student.setFaculty(faculty);
+            chunk.add(student);
+        }
+        context.getBean(StudentService.class).createStudents(chunk);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetCounters() {
+        statistics.clear();
+        calls.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        long queries = statistics.getPrepareStatementCount();
+        System.out.printf("%ncoalescing=%s: %d calls, %d SQL queries, %.3f queries per call%n",
+                coalescing, calls.sum(), queries, (double) queries / Math.max(1, calls.sum()));
+    }
+
+    @Benchmark
+    public List<StudentView> getFacultyStudents() {
+        calls.increment();
+        return facultyService.getFacultyStudents(facultyId);
+    }
+}
@@ -0,0 +1,104 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.DataExportService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выгрузка таблицы students: курсор JDBC с записью строк прямо в поток (CSV и NDJSON, с gzip и без)
+ * против NDJSON из StudentView через ObjectMapper (GET /student с Accept: application/x-ndjson).
+ * Результат — строк в секунду; gc.alloc.rate.norm показывает, что память не зависит от размера таблицы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class ExportBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    @Param({"CSV", "NDJSON"})
+    private DataExportService.Format format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private ConfigurableApplicationContext context;
+    private DataExportService exportService;
+    private StudentService studentService;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        exportService = context.getBean(DataExportService.class);
+        studentService = context.getBean(StudentService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        for (int from = 0; from < ROWS; from += 1000) {
+            List<Student> students = new ArrayList<>(1000);
+            for (int i = from; i < from + 1000; i++) {
+                students.add(new Student("Student_" + i, 11 + i % 8));
+            }
+            studentService.createStudents(students);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long jdbcCursor() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.export(DataExportService.Table.STUDENTS, format, List.of(), gzip, out);
+        return out.bytes;
+    }
+
+    // Базовая линия не зависит от параметров; сравнивать с jdbcCursor при format=NDJSON, gzip=false
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long studentViews() {
+        CountingOutputStream out = new CountingOutputStream();
+        exportService.forEachStudent(student -> {
+            try {
+                objectMapper.writeValue(out, student);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return out.bytes;
+    }
+
+    // Отбрасывает данные, как быстрый клиент; считает байты, чтобы JIT не выбросил запись
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+            bytes += length;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выборки студентов по факультету. Запускается на нескольких размерах таблицы:
+ * время и аллокации (профайлер gc) на страницу не должны расти вместе с таблицей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FacultyServiceBenchmark {
+
+    private static final int FACULTIES = 4;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private FacultyService facultyService;
+    private StudentService studentService;
+    private List<Faculty> faculties;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        facultyService = context.getBean(FacultyService.class);
+        studentService = context.getBean(StudentService.class);
+
+        faculties = new ArrayList<>();
+        for (int i = 0; i < FACULTIES; i++) {
+            faculties.add(facultyService.createFaculty(new Faculty("Faculty_" + i, "Color_" + i)));
+        }
+        for (int from = 0; from < rows; from += 1000) {
+            List<Student> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 1000, rows); i++) {
+                Student student = new Student("Student_" + i, 11 + i % 8);
+                // Каждый пятый студент без факультета
+                if (i % 5 != 0) {
+                    student.setFaculty(faculties.get(i % FACULTIES));
+                }
+                chunk.add(student);
+            }
+            studentService.createStudents(chunk);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Faculty getFacultyById() {
+        return facultyService.getFacultyById(randomFaculty().getId());
+    }
+
+    @Benchmark
+    public long getFacultyStudentCount() {
+        return facultyService.getFacultyStudentCount(randomFaculty().getId());
+    }
+
+    @Benchmark
+    public List<StudentView> getFacultyStudentsPage() {
+        return facultyService.getFacultyStudentsAfter(randomFaculty().getId(), 0L, 100);
+    }
+
+    private Faculty randomFaculty() {
+        return faculties.get(ThreadLocalRandom.current().nextInt(faculties.size()));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /student через встроенный Tomcat: задержка и байты тела на проводе при rows студентах
+ * в ответе, без сжатия и с gzip, по HTTP/1.1 и по HTTP/2 (h2c). Размер тела печатается после прогона.
+ * Клиент на localhost, поэтому сеть почти бесплатна и в задержке видна в основном цена сжатия;
+ * на медленном канале выигрыш от меньшего числа байт будет больше.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpCompressionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int rows;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    @Param({"HTTP_1_1", "HTTP_2"})
+    private HttpClient.Version protocol;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+    private long wireBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET, "--server.port=0");
+        StudentService studentService = context.getBean(StudentService.class);
+        for (int from = 0; from < rows; from += 1000) {
+            List<Student> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(rows, from + 1000); i++) {
+                chunk.add(new Student("Student_" + i, 11 + i % 7));
+            }
+            studentService.createStudents(chunk);
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder().version(protocol).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/student"))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", encoding)
+                .build();
+        // Первый запрос h2c идёт через Upgrade; дальше соединение уже HTTP/2
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.version() != protocol) {
+            throw new IllegalStateException("Expected " + protocol + ", got " + response.version());
+        }
+        wireBytes = response.body().length;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.printf("%n%d rows, %s, %s: %d bytes on the wire%n", rows, encoding, protocol, wireBytes);
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] getStudents() throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
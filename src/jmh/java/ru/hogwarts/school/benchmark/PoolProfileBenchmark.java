@@ -0,0 +1,104 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * CRUD-эндпоинты /student под профилями пула latency, throughput и lowmem (и без профиля)
+ * из {@code threads} клиентских потоков — больше, чем соединений в пуле lowmem.
+ * Настройки PgJDBC действуют только на PostgreSQL: {@code -Pbench.datasource.url=jdbc:postgresql://...};
+ * на H2 видна только разница в размере и поведении пула.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class PoolProfileBenchmark {
+    private static final int STUDENTS = 1000;
+    private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+
+    @Param({"default", "latency", "throughput", "lowmem"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = "default".equals(profile)
+                ? BenchmarkApplication.start(WebApplicationType.SERVLET, "--server.port=0")
+                : BenchmarkApplication.start(WebApplicationType.SERVLET, "--server.port=0",
+                "--spring.profiles.active=" + profile);
+        StudentService studentService = context.getBean(StudentService.class);
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Student_" + i, 11 + i % 7));
+        }
+        studentService.createStudents(students);
+        ids = studentService.getAllStudents().stream().map(student -> student.id()).toList();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/student";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String read() throws IOException, InterruptedException {
+        long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET(), 200);
+    }
+
+    // Полный цикл записи: создать, прочитать, изменить, удалить
+    @Benchmark
+    public String createReadUpdateDelete() throws IOException, InterruptedException {
+        int age = 11 + ThreadLocalRandom.current().nextInt(7);
+        String created = send(HttpRequest.newBuilder(URI.create(baseUrl))
+                .POST(json("{\"name\":\"Bench\",\"age\":" + age + "}")), 201);
+        Matcher matcher = ID.matcher(created);
+        if (!matcher.find()) {
+            throw new IllegalStateException("No id in " + created);
+        }
+        URI student = URI.create(baseUrl + "/" + matcher.group(1));
+        send(HttpRequest.newBuilder(student).GET(), 200);
+        send(HttpRequest.newBuilder(student).PUT(json("{\"name\":\"Bench_Updated\",\"age\":" + age + "}")), 200);
+        return send(HttpRequest.newBuilder(student).DELETE(), 200);
+    }
+
+    private String send(HttpRequest.Builder request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request.header("Content-Type", "application/json").build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static HttpRequest.BodyPublisher json(String body) {
+        return HttpRequest.BodyPublishers.ofString(body);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск студентов по имени: подстрока ({@code ContainingIgnoreCase}) против ранжированного
+ * триграммного поиска. На H2 триграммы считаются в памяти; чтобы измерить pg_trgm с GIN-индексом,
+ * запускать с {@code -Pbench.datasource.url=jdbc:postgresql://...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+    private static final String[] FIRST_NAMES = {
+            "Harry", "Hermione", "Ron", "Ginny", "Neville", "Luna", "Draco", "Cedric", "Cho", "Seamus"
+    };
+    private static final String[] LAST_NAMES = {
+            "Potter", "Granger", "Weasley", "Longbottom", "Lovegood", "Malfoy", "Diggory", "Chang", "Finnigan"
+    };
+
+    @Param({"100000", "1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        // pg_trgm и GIN-индексы на PostgreSQL создаёт миграция V3
+        studentService = context.getBean(StudentService.class);
+        for (int from = 0; from < rows; from += 1000) {
+            List<Student> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 1000, rows); i++) {
+                chunk.add(new Student(FIRST_NAMES[i % FIRST_NAMES.length] + " "
+                        + LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length] + " " + i, 11 + i % 8));
+            }
+            studentService.createStudents(chunk);
+        }
+        if (BenchmarkApplication.usePostgres()) {
+            context.getBean(JdbcTemplate.class).execute("ANALYZE students");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<StudentView> substring() {
+        return studentService.getStudentsByNameAfter("longbot", 0L, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit<Student>> rankedPrefix() {
+        return studentService.searchStudents("Lovegoo", 20);
+    }
+
+    @Benchmark
+    public List<SearchHit<Student>> rankedTypo() {
+        return studentService.searchStudents("Longbotom", 20);
+    }
+}
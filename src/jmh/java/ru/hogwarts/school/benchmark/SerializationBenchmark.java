@@ -0,0 +1,97 @@
+package ru.hogwarts.school.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и десериализация больших списков студентов и факультетов.
+ * {@code mapper}: plain — ObjectMapper с доступом к свойствам через рефлексию, blackbird — с модулем Blackbird,
+ * как в приложении (JacksonConfig). {@code format}: json, а также smile и cbor для внутренних клиентов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<Student>> STUDENT_LIST = new TypeReference<>() {};
+    private static final TypeReference<List<Faculty>> FACULTY_LIST = new TypeReference<>() {};
+
+    @Param({"1000", "10000"})
+    private int size;
+
+    @Param({"plain", "blackbird"})
+    private String mapper;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<Student> students;
+    private List<Faculty> faculties;
+    private byte[] studentsJson;
+    private byte[] facultiesJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        objectMapper = new ObjectMapper(factory);
+        objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        if (mapper.equals("blackbird")) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        students = new ArrayList<>(size);
+        faculties = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Student student = new Student("Student_" + i, 11 + i % 8);
+            student.setId((long) i);
+            student.setVersion(0L);
+            students.add(student);
+
+            Faculty faculty = new Faculty("Faculty_" + i, "Color_" + i % 4);
+            faculty.setId((long) i);
+            faculties.add(faculty);
+        }
+        studentsJson = objectMapper.writeValueAsBytes(students);
+        facultiesJson = objectMapper.writeValueAsBytes(faculties);
+    }
+
+    @Benchmark
+    public byte[] encodeStudents() throws IOException {
+        return objectMapper.writeValueAsBytes(students);
+    }
+
+    @Benchmark
+    public List<Student> decodeStudents() throws IOException {
+        return objectMapper.readValue(studentsJson, STUDENT_LIST);
+    }
+
+    @Benchmark
+    public byte[] encodeFaculties() throws IOException {
+        return objectMapper.writeValueAsBytes(faculties);
+    }
+
+    @Benchmark
+    public List<Faculty> decodeFaculties() throws IOException {
+        return objectMapper.readValue(facultiesJson, FACULTY_LIST);
+    }
+}
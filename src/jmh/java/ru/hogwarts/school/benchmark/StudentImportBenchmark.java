@@ -0,0 +1,143 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.ImportJobStatus;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.service.StudentImportService;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Импорт файла на rows строк через StudentImportService, от первого байта до записи последнего пакета.
+ * Файл генерируется на лету и в памяти не лежит. После каждой итерации печатаются строки в секунду
+ * и пиковый объём кучи; на встроенной H2 сами таблицы тоже живут в куче, поэтому рядом печатается
+ * объём кучи после GC — разница между ними и есть расход памяти конвейера импорта.
+ * Для чистых цифр: {@code -Pbench.datasource.url=jdbc:postgresql://...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class StudentImportBenchmark {
+
+    @Param({"1000000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StudentImportService importService;
+    private List<String> faculties;
+    private List<MemoryPoolMXBean> heapPools;
+    private long started;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        importService = context.getBean(StudentImportService.class);
+        FacultyRepository facultyRepository = context.getBean(FacultyRepository.class);
+        faculties = List.of("Gryffindor", "Hufflepuff", "Ravenclaw", "Slytherin");
+        for (String name : faculties) {
+            facultyRepository.save(new Faculty(name, "Color_" + name));
+        }
+        heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPeaks() {
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        started = System.nanoTime();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        System.gc();
+        long retained = heapPools.stream().mapToLong(pool -> pool.getUsage().getUsed()).sum();
+        System.out.printf("%n%d rows: %.0f rows/s, peak heap %d MB, heap after GC %d MB%n",
+                rows, rows / seconds, peak >> 20, retained >> 20);
+    }
+
+    @Benchmark
+    public ImportJobStatus importCsv() throws Exception {
+        StudentImportService.StartedImport started =
+                importService.startImport(new CsvRows(rows, faculties), StudentImportService.Format.CSV);
+        started.bodyRead().join();
+        ImportJobStatus status = importService.getStatus(started.status().id());
+        while (status.state() == ImportJobStatus.State.RUNNING) {
+            Thread.sleep(10);
+            status = importService.getStatus(status.id());
+        }
+        if (status.imported() != rows) {
+            throw new IllegalStateException("Import failed: " + status);
+        }
+        return status;
+    }
+
+    // CSV-файл, который строится по строке при чтении
+    private static final class CsvRows extends InputStream {
+        private final int rows;
+        private final List<String> faculties;
+        private byte[] line = "name,age,faculty\n".getBytes(StandardCharsets.UTF_8);
+        private int position;
+        private int row;
+
+        CsvRows(int rows, List<String> faculties) {
+            this.rows = rows;
+            this.faculties = faculties;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) {
+                return -1;
+            }
+            return line[position++];
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        private boolean fill() {
+            if (position < line.length) {
+                return true;
+            }
+            if (row == rows) {
+                return false;
+            }
+            line = ("Student_" + row + "," + (11 + row % 7) + "," + faculties.get(row % faculties.size()) + "\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            row++;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Страница студентов факультета и студентов без факультета (keyset по id) на разных размерах таблицы.
+ * Основная метрика — gc.alloc.rate.norm (байт на операцию) от профайлера gc: она должна быть одинаковой
+ * для всех {@code rows}, и для первой страницы, и для страницы из середины таблицы.
+ * Прежняя реализация (findAll и фильтр в Java) росла бы линейно.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class StudentPagingBenchmark {
+
+    private static final int FACULTIES = 4;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"10000", "100000", "500000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private List<Faculty> faculties;
+    // id студента из середины таблицы: страница после него проверяет, что глубина не влияет на стоимость
+    private long middleId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        FacultyService facultyService = context.getBean(FacultyService.class);
+        studentService = context.getBean(StudentService.class);
+
+        faculties = new ArrayList<>();
+        for (int i = 0; i < FACULTIES; i++) {
+            faculties.add(facultyService.createFaculty(new Faculty("Paging_" + i, "Color_" + i)));
+        }
+        for (int from = 0; from < rows; from += 1000) {
+            List<Student> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 1000, rows); i++) {
+                Student student = new Student("Student_" + i, 11 + i % 8);
+                // Каждый пятый студент без факультета
+                if (i % 5 != 0) {
+                    student.setFaculty(faculties.get(i % FACULTIES));
+                }
+                chunk.add(student);
+            }
+            List<BatchItemResult> created = studentService.createStudents(chunk);
+            if (from <= rows / 2 && rows / 2 < from + chunk.size()) {
+                middleId = created.get(rows / 2 - from).id();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<StudentView> byFacultyFirstPage() {
+        return studentService.getStudentsByFacultyIdAfter(randomFaculty().getId(), 0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<StudentView> byFacultyMiddlePage() {
+        return studentService.getStudentsByFacultyIdAfter(randomFaculty().getId(), middleId, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<StudentView> withoutFacultyFirstPage() {
+        return studentService.getStudentsWithoutFacultyAfter(0L, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<StudentView> withoutFacultyMiddlePage() {
+        return studentService.getStudentsWithoutFacultyAfter(middleId, PAGE_SIZE);
+    }
+
+    private Faculty randomFaculty() {
+        return faculties.get(ThreadLocalRandom.current().nextInt(faculties.size()));
+    }
+}
@@ -0,0 +1,90 @@
+package ru.hogwarts.school.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CRUD и поисковые запросы {@link StudentService}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        studentService = context.getBean(StudentService.class);
+        ids = new ArrayList<>(rows);
+        for (int from = 0; from < rows; from += 1000) {
+            List<Student> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(from + 1000, rows); i++) {
+                chunk.add(new Student("Student_" + i, 11 + i % 8));
+            }
+            studentService.createStudents(chunk).forEach(result -> ids.add(result.id()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Student createAndDelete() {
+        Student student = studentService.createStudent(new Student("Temporary", 15));
+        return studentService.deleteStudent(student.getId());
+    }
+
+    @Benchmark
+    public Student getById() {
+        return studentService.getStudentById(randomId());
+    }
+
+    @Benchmark
+    public Student update() {
+        return studentService.updateStudent(randomId(), new Student("Renamed", 0));
+    }
+
+    @Benchmark
+    public List<StudentView> getByAge() {
+        return studentService.getStudentsByAge(11 + ThreadLocalRandom.current().nextInt(8));
+    }
+
+    @Benchmark
+    public List<StudentView> getByAgeBetweenPage() {
+        return studentService.getStudentsByAgeBetweenAfter(12, 14, 0L, 100);
+    }
+
+    @Benchmark
+    public List<StudentView> getByName() {
+        return studentService.getStudentsByName("_99");
+    }
+
+    @Benchmark
+    public List<StudentView> getAllKeysetPage() {
+        return studentService.getStudentsAfter(randomId(), 100);
+    }
+
+    private long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
@@ -0,0 +1,161 @@
+package ru.hogwarts.school.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.FacultyService;
+import ru.hogwarts.school.service.StudentService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочный прогон эндпоинтов /student и /faculty в режиме платформенных потоков
+ * и в режиме виртуальных потоков (только на Java 21+). Печатает пропускную способность и p99.
+ *
+ * <pre>./gradlew loadTest -PloadTest.javaVersion=21 -PloadTest.args="200 20"</pre>
+ * Аргументы: число одновременных клиентов и длительность прогона в секундах.
+ */
+public class ThreadModeLoadTest {
+
+    private static final int STUDENTS = 20_000;
+    private static final int FACULTIES = 4;
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        List<String> modes = new ArrayList<>(List.of("platform"));
+        if (Runtime.version().feature() >= 21) {
+            modes.add("virtual");
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": virtual threads mode skipped (needs 21+)");
+        }
+
+        List<String> report = new ArrayList<>();
+        for (String mode : modes) {
+            report.add(run(mode, clients, Duration.ofSeconds(seconds)));
+        }
+        System.out.printf("%n%-10s %10s %12s %10s %10s %8s%n", "mode", "requests", "req/s", "p50, ms", "p99, ms", "errors");
+        report.forEach(System.out::println);
+    }
+
+    private static String run(String mode, int clients, Duration duration) throws Exception {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + "virtual".equals(mode),
+                "--spring.datasource.hikari.maximum-pool-size=10")) {
+            List<String> paths = seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return load(mode, "http://localhost:" + port, paths, clients, duration);
+        }
+    }
+
+    private static List<String> seed(ConfigurableApplicationContext context) {
+        FacultyService facultyService = context.getBean(FacultyService.class);
+        StudentService studentService = context.getBean(StudentService.class);
+        List<Faculty> faculties = new ArrayList<>();
+        for (int i = 0; i < FACULTIES; i++) {
+            faculties.add(facultyService.createFaculty(new Faculty("Faculty_" + i, "Color_" + i)));
+        }
+        for (int from = 0; from < STUDENTS; from += 1000) {
+            List<Student> chunk = new ArrayList<>();
+            for (int i = from; i < from + 1000; i++) {
+                Student student = new Student("Student_" + i, 11 + i % 8);
+                student.setFaculty(faculties.get(i % FACULTIES));
+                chunk.add(student);
+            }
+            studentService.createStudents(chunk);
+        }
+        return List.of(
+                "/student?limit=100",
+                "/student/age/15?limit=100",
+                "/faculty",
+                "/faculty/" + faculties.get(0).getId(),
+                "/faculty/" + faculties.get(1).getId() + "/students?limit=50");
+    }
+
+    private static String load(String mode, String baseUrl, List<String> paths,
+                               int clients, Duration duration) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.min(clients, 64));
+        HttpClient client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .build();
+        List<HttpRequest> requests = paths.stream()
+                .map(path -> HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build())
+                .toList();
+
+        AtomicLong errors = new AtomicLong();
+        long[] latencies;
+        try {
+            // Прогрев
+            runClients(client, requests, clients, Duration.ofSeconds(3), new AtomicLong());
+            latencies = runClients(client, requests, clients, duration, errors);
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+        Arrays.sort(latencies);
+        double seconds = duration.toMillis() / 1000.0;
+        return String.format("%-10s %10d %12.1f %10.2f %10.2f %8d", mode, latencies.length,
+                latencies.length / seconds, percentile(latencies, 0.50), percentile(latencies, 0.99), errors.get());
+    }
+
+    private static long[] runClients(HttpClient client, List<HttpRequest> requests, int clients,
+                                     Duration duration, AtomicLong errors) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int offset = c;
+                results.add(pool.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    for (int i = offset; System.nanoTime() < deadline; i++) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(requests.get(i % requests.size()),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            List<long[]> all = new ArrayList<>();
+            for (Future<long[]> result : results) {
+                all.add(result.get());
+            }
+            return all.stream().flatMapToLong(Arrays::stream).toArray();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
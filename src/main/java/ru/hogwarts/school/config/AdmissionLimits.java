@@ -0,0 +1,14 @@
+package ru.hogwarts.school.config;
+
+import java.time.Duration;
+
+/**
+ * Лимиты одного маршрута. requestsPerSecond = 0 отключает лимит на клиента,
+ * maxConcurrency = 0 — адаптивный предел одновременных запросов.
+ */
+record AdmissionLimits(double requestsPerSecond,
+                       int burst,
+                       int minConcurrency,
+                       int maxConcurrency,
+                       Duration latencyThreshold) {
+}
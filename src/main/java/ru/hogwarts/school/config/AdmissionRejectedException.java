@@ -0,0 +1,26 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Запрос не допущен до контроллера: 429, если клиент превысил свой лимит,
+ * или 503, если занят предел одновременных запросов эндпоинта.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final HttpStatus status;
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(HttpStatus status, long retryAfterSeconds, String message) {
+        super(message, null, false, false);
+        this.status = status;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
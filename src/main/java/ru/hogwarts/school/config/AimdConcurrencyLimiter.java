@@ -0,0 +1,50 @@
+package ru.hogwarts.school.config;
+
+/**
+ * Предел одновременных запросов, подстраивающийся по задержке (AIMD): запрос быстрее
+ * latencyThreshold при занятом пределе поднимает его примерно на 1 за «окно» из limit запросов,
+ * медленный или завершившийся ошибкой запрос умножает предел на {@value #BACKOFF}.
+ */
+final class AimdConcurrencyLimiter {
+    static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private double limit;
+    private int inFlight;
+
+    AimdConcurrencyLimiter(int minLimit, int maxLimit, long latencyThresholdNanos) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = this.maxLimit;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    synchronized void release(long latencyNanos, boolean failed) {
+        // Предел растёт, только если его действительно выбирали: иначе он раздулся бы в простое
+        boolean busy = inFlight * 2 >= (int) limit;
+        inFlight--;
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+        } else if (busy) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
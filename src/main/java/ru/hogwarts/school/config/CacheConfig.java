@@ -0,0 +1,40 @@
+package ru.hogwarts.school.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.hogwarts.school.service.StatisticsCaches;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Кэши уровня приложения (Spring Cache на Caffeine) — отдельно от второго уровня Hibernate.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Операции с кэшем внутри транзакции откладываются до коммита: @CacheEvict
+    // в изменяющем методе не даст параллельному чтению закэшировать незакоммиченное состояние.
+    // TTL ограничивает устаревание, если данные меняют в обход приложения.
+    @Bean
+    public CacheManager cacheManager(@Value("${school.stats.cache-ttl:5m}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setCacheNames(List.of(
+                StatisticsCaches.STUDENT_STATS,
+                StatisticsCaches.AGE_HISTOGRAM,
+                StatisticsCaches.FACULTY_STATS,
+                StatisticsCaches.COLOR_STATS));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
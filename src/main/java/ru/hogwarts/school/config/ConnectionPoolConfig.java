@@ -0,0 +1,35 @@
+package ru.hogwarts.school.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Профили производительности пула и драйвера: {@code latency}, {@code throughput}, {@code lowmem}
+ * (application-{profile}.properties). Настройки проверяются до создания каких-либо бинов:
+ * приложение с несогласованным пулом не стартует и не успевает выполнить миграции.
+ */
+@Configuration
+public class ConnectionPoolConfig {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPoolConfig.class);
+
+    @Bean
+    public static BeanFactoryPostProcessor connectionPoolSettingsValidator(Environment environment) {
+        return beanFactory -> {
+            List<String> problems = ConnectionPoolSettings.validate(environment);
+            if (!problems.isEmpty()) {
+                throw new IllegalStateException("Invalid connection pool settings:\n - " + String.join("\n - ", problems));
+            }
+            Arrays.stream(environment.getActiveProfiles())
+                    .filter(ConnectionPoolSettings.PERFORMANCE_PROFILES::contains)
+                    .findFirst()
+                    .ifPresent(profile -> logger.info("Connection pool profile '{}' is active", profile));
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Проверка настроек Hikari и PgJDBC до создания пула. Hikari сам молча исправляет часть
+ * ошибок (обнуляет leak detection, подменяет max-lifetime), а PgJDBC игнорирует неверные
+ * значения, поэтому опечатка в профиле тихо возвращала бы поведение по умолчанию.
+ */
+final class ConnectionPoolSettings {
+
+    static final List<String> PERFORMANCE_PROFILES = List.of("latency", "throughput", "lowmem");
+    private static final String HIKARI = "spring.datasource.hikari.";
+    private static final List<String> PGJDBC_INTEGERS = List.of(
+            "prepareThreshold", "preparedStatementCacheQueries", "preparedStatementCacheSizeMiB", "defaultRowFetchSize");
+    private static final List<String> PGJDBC_KNOWN = List.of("prepareThreshold", "preparedStatementCacheQueries",
+            "preparedStatementCacheSizeMiB", "defaultRowFetchSize", "reWriteBatchedInserts", "tcpKeepAlive");
+
+    private ConnectionPoolSettings() {
+    }
+
+    /**
+     * @return описания ошибок; пустой список — настройки согласованы
+     */
+    static List<String> validate(Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<String> problems = new ArrayList<>();
+
+        List<String> active = Arrays.stream(environment.getActiveProfiles())
+                .filter(PERFORMANCE_PROFILES::contains)
+                .toList();
+        if (active.size() > 1) {
+            problems.add("only one of the profiles " + PERFORMANCE_PROFILES + " can be active, got " + active);
+        }
+
+        int maxPoolSize = binder.bind(HIKARI + "maximum-pool-size", Integer.class).orElse(10);
+        int minIdle = binder.bind(HIKARI + "minimum-idle", Integer.class).orElse(maxPoolSize);
+        long connectionTimeout = binder.bind(HIKARI + "connection-timeout", Long.class).orElse(30_000L);
+        long idleTimeout = binder.bind(HIKARI + "idle-timeout", Long.class).orElse(600_000L);
+        long maxLifetime = binder.bind(HIKARI + "max-lifetime", Long.class).orElse(1_800_000L);
+        long keepaliveTime = binder.bind(HIKARI + "keepalive-time", Long.class).orElse(120_000L);
+        long leakDetection = binder.bind(HIKARI + "leak-detection-threshold", Long.class).orElse(0L);
+
+        if (maxPoolSize < 1) {
+            problems.add("maximum-pool-size must be at least 1, got " + maxPoolSize);
+        }
+        if (minIdle < 0 || minIdle > maxPoolSize) {
+            problems.add("minimum-idle must be between 0 and maximum-pool-size " + maxPoolSize + ", got " + minIdle);
+        }
+        if (connectionTimeout < 250) {
+            problems.add("connection-timeout must be at least 250 ms, got " + connectionTimeout);
+        }
+        if (maxLifetime != 0 && maxLifetime < 30_000) {
+            problems.add("max-lifetime must be 0 or at least 30000 ms, got " + maxLifetime);
+        }
+        if (idleTimeout != 0 && maxLifetime != 0 && idleTimeout >= maxLifetime) {
+            problems.add("idle-timeout " + idleTimeout + " ms must be less than max-lifetime " + maxLifetime + " ms");
+        }
+        if (keepaliveTime != 0 && (keepaliveTime < 30_000 || (maxLifetime != 0 && keepaliveTime >= maxLifetime))) {
+            problems.add("keepalive-time must be 0 or between 30000 ms and max-lifetime, got " + keepaliveTime);
+        }
+        if (leakDetection != 0 && (leakDetection < 2_000 || (maxLifetime != 0 && leakDetection >= maxLifetime))) {
+            problems.add("leak-detection-threshold must be 0 or between 2000 ms and max-lifetime, got " + leakDetection);
+        }
+
+        String url = binder.bind("spring.datasource.url", String.class).orElse("");
+        if (url.startsWith("jdbc:postgresql:")) {
+            Map<String, String> driver = binder.bind(HIKARI + "data-source-properties",
+                    Bindable.mapOf(String.class, String.class)).orElse(Map.of());
+            int batchSize = environment.getProperty("spring.jpa.properties.hibernate.jdbc.batch_size", Integer.class, 0);
+            validatePgJdbc(driver, batchSize, problems);
+        }
+        return problems;
+    }
+
+    private static void validatePgJdbc(Map<String, String> driver, int batchSize, List<String> problems) {
+        for (String name : PGJDBC_INTEGERS) {
+            String value = driver.get(name);
+            if (value == null) {
+                continue;
+            }
+            try {
+                int number = Integer.parseInt(value.trim());
+                // prepareThreshold=-1 — законное значение: всегда серверный prepare в двоичном протоколе
+                if (number < ("prepareThreshold".equals(name) ? -1 : 0)) {
+                    problems.add("PgJDBC " + name + " must not be negative, got " + number);
+                }
+            } catch (NumberFormatException e) {
+                problems.add("PgJDBC " + name + " must be an integer, got '" + value + "'");
+            }
+        }
+        String rewrite = driver.get("reWriteBatchedInserts");
+        if (rewrite != null && !rewrite.equals("true") && !rewrite.equals("false")) {
+            problems.add("PgJDBC reWriteBatchedInserts must be true or false, got '" + rewrite + "'");
+        }
+        if ("true".equals(rewrite) && batchSize <= 1) {
+            problems.add("PgJDBC reWriteBatchedInserts has no effect without hibernate.jdbc.batch_size > 1");
+        }
+        // Драйвер не знает о регистре: reWriteBatchedInserts с другой буквой просто игнорируется
+        for (String name : driver.keySet()) {
+            for (String known : PGJDBC_KNOWN) {
+                if (name.equalsIgnoreCase(known) && !name.equals(known)) {
+                    problems.add("PgJDBC property '" + name + "' is ignored by the driver, did you mean '" + known + "'?");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Отдельный пул соединений для выгрузок таблиц. Выгрузка держит соединение с открытым курсором
+ * до конца ответа, поэтому в основном пуле она занимала бы соединение интерактивных запросов
+ * и срабатывала бы как утечка по leak-detection-threshold. Пул намеренно не объявлен бином
+ * DataSource: тогда Spring Boot не настроил бы основной.
+ */
+public class ExportPool implements AutoCloseable {
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportPool(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // На PostgreSQL курсор с fetchSize работает только внутри транзакции
+        this.readOnlyTransaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public JdbcTemplate jdbcTemplate() {
+        return jdbcTemplate;
+    }
+
+    public TransactionTemplate readOnlyTransaction() {
+        return readOnlyTransaction;
+    }
+
+    public HikariDataSource dataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        dataSource.close();
+    }
+}
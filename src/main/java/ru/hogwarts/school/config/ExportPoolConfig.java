@@ -0,0 +1,36 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Пул выгрузок {@link ExportPool}: подключение из spring.datasource.*, настройки Hikari
+ * из spring.datasource.hikari.*, поверх которых {@code school.export.pool.*}. Leak detection
+ * в нём выключена — выгрузка законно держит соединение до spring.mvc.async.request-timeout.
+ * Выгрузки всегда читают primary, в том числе при включённых репликах.
+ */
+@Configuration
+public class ExportPoolConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExportPool exportPool(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        // Пул простаивает почти всегда: соединения открываются под выгрузку и закрываются по idle-timeout
+        pool.setMinimumIdle(0);
+        pool.setMaximumPoolSize(2);
+        pool.setLeakDetectionThreshold(0);
+        binder.bind("school.export.pool", Bindable.ofInstance(pool));
+        pool.setPoolName("export");
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return new ExportPool(pool);
+    }
+}
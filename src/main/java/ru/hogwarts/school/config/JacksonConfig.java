@@ -1,17 +1,74 @@
 package ru.hogwarts.school.config;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.dto.FacultyView;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
 
+import java.util.List;
+
+/**
+ * ObjectMapper собирает Spring Boot (модули Java Time, Kotlin, ParameterNames и настройки spring.jackson.*);
+ * здесь к нему добавляется Blackbird — доступ к свойствам через сгенерированные лямбды вместо рефлексии.
+ * <p>
+ * Smile и CBOR (Accept/Content-Type {@code application/x-jackson-smile} и {@code application/cbor})
+ * включаются только при {@code school.jackson.binary-formats.enabled=true}, для внутренних клиентов.
+ */
 @Configuration
 public class JacksonConfig {
 
+    // Типы, которые отдают и принимают контроллеры: сериализаторы для них строятся при старте, а не на первом запросе
+    private static final List<Class<?>> WARM_UP_TYPES = List.of(
+            Student.class, Faculty.class, StudentView.class, FacultyView.class, ChangeEventView.class);
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public SmartInitializingSingleton jacksonWarmUp(ObjectMapper objectMapper) {
+        return () -> {
+            for (Class<?> type : WARM_UP_TYPES) {
+                JavaType list = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+                objectMapper.writerFor(type);
+                objectMapper.writerFor(list);
+                objectMapper.readerFor(type);
+                objectMapper.readerFor(list);
+            }
+        };
+    }
+
+    // Spring MVC сам добавляет конвертеры Smile и CBOR, если библиотеки есть в classpath, но со своим
+    // ObjectMapper; они заменяются копиями основного или убираются, если двоичные форматы не включены
     @Bean
-    public ObjectMapper objectMapper() {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
-        return mapper;
+    public WebMvcConfigurer binaryFormatConverters(ObjectMapper objectMapper,
+                                                   @Value("${school.jackson.binary-formats.enabled:false}") boolean enabled) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                        || converter instanceof MappingJackson2CborHttpMessageConverter);
+                if (enabled) {
+                    converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())));
+                    converters.add(new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())));
+                }
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик: включается списком {@code school.datasource.replica.urls}. Пул primary строится
+ * из spring.datasource.*, пулы реплик — с теми же настройками Hikari, поверх которых
+ * {@code school.datasource.replica.hikari.*}. Метрики пулов — hikaricp.* с тегом pool.
+ */
+@Configuration
+@ConditionalOnProperty("school.datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    // Отставание 0, пока реплика проиграла всё полученное: простаивающий primary — это не отставание
+    static final String POSTGRES_LAG_QUERY = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final DataSourceProperties properties;
+    private final List<String> urls;
+    private final Duration stickyWindow;
+
+    public ReadReplicaConfig(Environment environment,
+                             MeterRegistry meterRegistry,
+                             DataSourceProperties properties,
+                             @Value("${school.datasource.replica.urls}") List<String> urls,
+                             @Value("${school.datasource.replica.sticky-window:PT5S}") Duration stickyWindow) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.urls = urls;
+        this.stickyWindow = stickyWindow;
+    }
+
+    // Не кандидат для внедрения по типу: DataSource в приложении один — ленивый прокси ниже
+    @Bean(autowireCandidate = false, destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource() {
+        String username = environment.getProperty("school.datasource.replica.username", properties.determineUsername());
+        String password = environment.getProperty("school.datasource.replica.password", properties.determinePassword());
+        Duration maxLag = environment.getProperty("school.datasource.replica.max-lag", Duration.class, Duration.ofSeconds(10));
+        String lagQuery = environment.getProperty("school.datasource.replica.lag-query", POSTGRES_LAG_QUERY);
+
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(primary, "spring.datasource.hikari", ReplicaRoutingDataSource.PRIMARY);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(urls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            configure(replica, "spring.datasource.hikari", "replica-" + (i + 1));
+            // Недоступная при старте реплика не должна мешать запуску приложения
+            replica.setInitializationFailTimeout(-1);
+            Binder.get(environment).bind("school.datasource.replica.hikari", Bindable.ofInstance(replica));
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLag, stickyWindow, lagQuery, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource());
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadYourWritesInterceptor(stickyWindow));
+            }
+        };
+    }
+
+    private void configure(HikariDataSource pool, String prefix, String poolName) {
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+        pool.setPoolName(poolName);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+    }
+}
@@ -0,0 +1,55 @@
+package ru.hogwarts.school.config;
+
+import java.time.Duration;
+import java.util.function.LongConsumer;
+
+/**
+ * Чтение своих записей: после коммита изменяющей транзакции read-only транзакции того же потока
+ * ещё stickyWindow идут на primary, а не на реплику, которая могла не успеть получить изменения.
+ * Для HTTP-клиентов срок переносится между запросами в cookie ({@link ReadYourWritesInterceptor}).
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<State> STATE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void begin(long primaryUntilMillis, LongConsumer onWrite) {
+        STATE.set(new State(primaryUntilMillis, onWrite));
+    }
+
+    static void end() {
+        STATE.remove();
+    }
+
+    // Открыт сервисам: объединение одинаковых чтений не должно смешивать чтения с primary и с реплики
+    public static boolean readsFromPrimary() {
+        State state = STATE.get();
+        return state != null && System.currentTimeMillis() < state.primaryUntilMillis;
+    }
+
+    // Вне HTTP-запроса (пулы, @Scheduled) состояние остаётся в потоке, но истекает само
+    static void writeCommitted(Duration stickyWindow) {
+        long until = System.currentTimeMillis() + stickyWindow.toMillis();
+        State state = STATE.get();
+        if (state == null) {
+            STATE.set(new State(until, null));
+            return;
+        }
+        state.primaryUntilMillis = Math.max(state.primaryUntilMillis, until);
+        if (state.onWrite != null) {
+            state.onWrite.accept(state.primaryUntilMillis);
+        }
+    }
+
+    private static final class State {
+        private long primaryUntilMillis;
+        private final LongConsumer onWrite;
+
+        State(long primaryUntilMillis, LongConsumer onWrite) {
+            this.primaryUntilMillis = primaryUntilMillis;
+            this.onWrite = onWrite;
+        }
+    }
+}
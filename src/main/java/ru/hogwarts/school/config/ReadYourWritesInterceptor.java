@@ -0,0 +1,63 @@
+package ru.hogwarts.school.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Переносит срок чтения с primary между запросами клиента: после изменения ответ получает cookie
+ * {@value #COOKIE} с моментом (epoch millis), до которого чтения этого клиента не идут на реплики.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    static final String COOKIE = "school-read-primary-until";
+
+    private final Duration stickyWindow;
+
+    public ReadYourWritesInterceptor(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Клиент не может продлить себе чтение с primary дольше окна
+        long primaryUntil = Math.min(primaryUntil(request), System.currentTimeMillis() + stickyWindow.toMillis());
+        ReadYourWrites.begin(primaryUntil, until -> {
+            // Заголовки ещё можно дописать: транзакции сервиса завершаются до записи тела ответа
+            if (!response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, Long.toString(until));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, stickyWindow.toSeconds()));
+                response.addCookie(cookie);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ReadYourWrites.end();
+    }
+
+    private static long primaryUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,227 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Направляет read-only транзакции на реплики по кругу, всё остальное — на primary.
+ * <p>
+ * Решение принимается при получении физического соединения, поэтому снаружи нужен
+ * {@code LazyConnectionDataSourceProxy}: к первому SQL флаг read-only транзакции уже выставлен.
+ * Реплика выпадает из ротации, если проверка не прошла или отставание больше maxLag;
+ * без доступных реплик чтение идёт на primary. После коммита изменений чтения того же
+ * клиента stickyWindow идут на primary ({@link ReadYourWrites}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final Duration stickyWindow;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicaPools,
+                                    Duration maxLag, Duration stickyWindow, String lagQuery,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.stickyWindow = stickyWindow;
+        this.lagQuery = lagQuery;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.name(), replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        for (String reason : List.of("write", "sticky", "fallback")) {
+            routed.put(reason, routingCounter(meterRegistry, PRIMARY, reason));
+        }
+        for (Replica replica : replicas) {
+            routed.put(replica.name(), routingCounter(meterRegistry, replica.name(), "read"));
+            Gauge.builder("school.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica is in read rotation")
+                    .tag("replica", replica.name())
+                    .register(meterRegistry);
+            Gauge.builder("school.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag seen by the last health check")
+                    .tag("replica", replica.name())
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("school.datasource.routing")
+                .description("Physical connections handed out by the routing data source")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWriteCommit();
+            routed.get("write").increment();
+            return PRIMARY;
+        }
+        if (ReadYourWrites.readsFromPrimary()) {
+            routed.get("sticky").increment();
+            return PRIMARY;
+        }
+        Replica replica = nextHealthy();
+        if (replica == null) {
+            routed.get("fallback").increment();
+            return PRIMARY;
+        }
+        routed.get(replica.name()).increment();
+        return replica.name();
+    }
+
+    // Реплика, которая не дала соединение, выпадает из ротации до следующей успешной проверки
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        Replica replica = find(key);
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            replica.markDown(e.getMessage());
+            routed.get("fallback").increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Проверяет реплики запросом lagQuery: реплика в ротации, если он выполнился
+     * и отставание не больше maxLag.
+     */
+    @Scheduled(fixedDelayString = "${school.datasource.replica.check-interval:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, maxLag.toSeconds()));
+                double lag;
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    lag = resultSet.next() ? resultSet.getDouble(1) : 0;
+                }
+                replica.lagSeconds = lag;
+                if (lag * 1000 > maxLag.toMillis()) {
+                    replica.markDown(String.format("lag %.1fs exceeds %s", lag, maxLag));
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.markDown(e.getMessage());
+            }
+        }
+    }
+
+    public List<String> getHealthyReplicas() {
+        List<String> healthy = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica.name());
+            }
+        }
+        return healthy;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+        primary.close();
+    }
+
+    private void registerWriteCommit() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReadYourWrites.writeCommitted(stickyWindow);
+                }
+            });
+        }
+    }
+
+    private Replica nextHealthy() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica find(Object key) {
+        for (Replica replica : replicas) {
+            if (replica.name().equals(key)) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private static final class Replica {
+        private final HikariDataSource dataSource;
+        // До первой проверки реплика считается доступной: недоступную отсеет неудачное соединение
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+
+        Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        String name() {
+            return dataSource.getPoolName();
+        }
+
+        void markUp() {
+            if (!healthy) {
+                logger.info("Replica {} is back in read rotation", name());
+                healthy = true;
+            }
+        }
+
+        void markDown(String reason) {
+            if (healthy) {
+                logger.warn("Replica {} removed from read rotation: {}", name(), reason);
+                healthy = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ограничение запросов к /student/** и /faculty/**. Лимиты по умолчанию — {@code school.admission.*},
+ * для отдельных маршрутов — {@code school.admission.routes[i].*}; незаданные поля маршрута
+ * берутся из значений по умолчанию. Всё состояние в памяти процесса.
+ */
+@Configuration
+@ConditionalOnProperty(value = "school.admission.enabled", matchIfMissing = true)
+public class RequestAdmissionConfig {
+    private static final String PREFIX = "school.admission.";
+
+    @Bean
+    public WebMvcConfigurer requestAdmissionConfigurer(Environment environment, MeterRegistry meterRegistry) {
+        AdmissionLimits defaults = new AdmissionLimits(
+                environment.getProperty(PREFIX + "requests-per-second", Double.class, 0.0),
+                environment.getProperty(PREFIX + "burst", Integer.class, 100),
+                environment.getProperty(PREFIX + "min-concurrency", Integer.class, 4),
+                environment.getProperty(PREFIX + "max-concurrency", Integer.class, 64),
+                environment.getProperty(PREFIX + "latency-threshold", Duration.class, Duration.ofMillis(500)));
+        RequestAdmissionInterceptor interceptor = new RequestAdmissionInterceptor(
+                routeLimits(environment, defaults), defaults,
+                environment.getProperty(PREFIX + "client-header"),
+                environment.getProperty(PREFIX + "max-clients", Integer.class, 100_000),
+                environment.getProperty(PREFIX + "client-idle-timeout", Duration.class, Duration.ofMinutes(10)),
+                meterRegistry);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Первым: отказ не должен стоить ни одного запроса к БД и ни одной метрики ниже по цепочке
+                registry.addInterceptor(interceptor)
+                        .addPathPatterns("/student/**", "/faculty/**")
+                        .order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+
+    // Ключ — "GET /student/{id}" или "/student/{id}" для всех методов
+    static Map<String, AdmissionLimits> routeLimits(Environment environment, AdmissionLimits defaults) {
+        Map<String, AdmissionLimits> limits = new LinkedHashMap<>();
+        for (int i = 0; ; i++) {
+            String prefix = PREFIX + "routes[" + i + "].";
+            String route = environment.getProperty(prefix + "route");
+            if (route == null) {
+                return limits;
+            }
+            limits.put(route.trim().replaceAll("\\s+", " "), new AdmissionLimits(
+                    environment.getProperty(prefix + "requests-per-second", Double.class, defaults.requestsPerSecond()),
+                    environment.getProperty(prefix + "burst", Integer.class, defaults.burst()),
+                    environment.getProperty(prefix + "min-concurrency", Integer.class, defaults.minConcurrency()),
+                    environment.getProperty(prefix + "max-concurrency", Integer.class, defaults.maxConcurrency()),
+                    environment.getProperty(prefix + "latency-threshold", Duration.class, defaults.latencyThreshold())));
+        }
+    }
+}
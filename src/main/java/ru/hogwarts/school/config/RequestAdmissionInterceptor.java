@@ -0,0 +1,175 @@
+package ru.hogwarts.school.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Допуск запросов к контроллерам: сначала корзина токенов клиента на маршруте (429),
+ * затем предел одновременных запросов маршрута по AIMD (503). Отказ происходит до вызова
+ * контроллера и оформляется {@link AdmissionRejectedException} с Retry-After.
+ * <p>
+ * Маршрут — метод и шаблон URI ({@code GET /student/{id}}); лимиты задаются для маршрута
+ * или для шаблона без метода, остальные маршруты получают лимиты по умолчанию.
+ * Клиент — значение clientHeader, если оно задано и пришло, иначе адрес клиента.
+ * Корзины хранятся в памяти, не больше maxClients, и забываются после простоя.
+ * <p>
+ * Асинхронный ответ (NDJSON, SSE, импорт) освобождает место, как только обработчик вернул управление:
+ * дальше идёт передача данных, которая может длиться минуты, и её длительность в AIMD не попадает.
+ */
+public class RequestAdmissionInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT_ATTRIBUTE = RequestAdmissionInterceptor.class.getName() + ".permit";
+    private static final long SHED_RETRY_AFTER_SECONDS = 1;
+
+    private final Map<String, AdmissionLimits> limitsByRoute;
+    private final AdmissionLimits defaultLimits;
+    private final String clientHeader;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+    private final Cache<String, TokenBucket> buckets;
+
+    public RequestAdmissionInterceptor(Map<String, AdmissionLimits> limitsByRoute,
+                                       AdmissionLimits defaultLimits,
+                                       String clientHeader,
+                                       int maxClients,
+                                       Duration clientIdleTimeout,
+                                       MeterRegistry meterRegistry) {
+        this.limitsByRoute = Map.copyOf(limitsByRoute);
+        this.defaultLimits = defaultLimits;
+        this.clientHeader = clientHeader == null || clientHeader.isBlank() ? null : clientHeader;
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(clientIdleTimeout)
+                .build();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Асинхронный ответ досылается повторным dispatch: его допуск уже проверен первым
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return true;
+        }
+        Route route = routes.computeIfAbsent(request.getMethod() + " " + pattern, this::route);
+        long now = System.nanoTime();
+
+        if (route.limits.requestsPerSecond() > 0) {
+            TokenBucket bucket = buckets.get(route.name + "|" + clientOf(request),
+                    key -> new TokenBucket(route.limits.requestsPerSecond(), route.limits.burst(), now));
+            long waitNanos = bucket.tryConsume(now);
+            if (waitNanos > 0) {
+                route.rateLimited.increment();
+                throw new AdmissionRejectedException(HttpStatus.TOO_MANY_REQUESTS,
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)),
+                        "Rate limit of " + route.limits.requestsPerSecond() + " requests per second exceeded");
+            }
+        }
+        if (route.limiter != null && !route.limiter.tryAcquire()) {
+            route.shed.increment();
+            throw new AdmissionRejectedException(HttpStatus.SERVICE_UNAVAILABLE, SHED_RETRY_AFTER_SECONDS,
+                    "Too many concurrent requests to " + route.name);
+        }
+        route.admitted.increment();
+        if (route.limiter != null) {
+            request.setAttribute(PERMIT_ATTRIBUTE, new Permit(route, now));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        release(request, false);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        release(request, ex != null || response.getStatus() >= 500);
+    }
+
+    private void release(HttpServletRequest request, boolean failed) {
+        Permit permit = (Permit) request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit != null) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.route.limiter.release(System.nanoTime() - permit.startedAt, failed);
+        }
+    }
+
+    private Route route(String name) {
+        AdmissionLimits limits = limitsByRoute.get(name);
+        if (limits == null) {
+            limits = limitsByRoute.getOrDefault(name.substring(name.indexOf(' ') + 1), defaultLimits);
+        }
+        return new Route(name, limits, meterRegistry);
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (clientHeader != null) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private record Permit(Route route, long startedAt) {
+    }
+
+    private static final class Route {
+        private final String name;
+        private final AdmissionLimits limits;
+        private final AimdConcurrencyLimiter limiter;
+        private final Counter admitted;
+        private final Counter rateLimited;
+        private final Counter shed;
+
+        Route(String name, AdmissionLimits limits, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.limits = limits;
+            this.limiter = limits.maxConcurrency() > 0
+                    ? new AimdConcurrencyLimiter(limits.minConcurrency(), limits.maxConcurrency(),
+                    limits.latencyThreshold().toNanos())
+                    : null;
+            this.admitted = counter(meterRegistry, "admitted");
+            this.rateLimited = counter(meterRegistry, "rate_limited");
+            this.shed = counter(meterRegistry, "shed");
+            if (limiter != null) {
+                Gauge.builder("school.admission.concurrency.limit", limiter, AimdConcurrencyLimiter::getLimit)
+                        .description("Current adaptive concurrency limit of the route")
+                        .tag("route", name)
+                        .register(meterRegistry);
+                Gauge.builder("school.admission.concurrency.in_flight", limiter, AimdConcurrencyLimiter::getInFlight)
+                        .description("Admitted requests of the route that are still running")
+                        .tag("route", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        private Counter counter(MeterRegistry meterRegistry, String outcome) {
+            return Counter.builder("school.admission.requests")
+                    .description("Requests admitted or rejected before reaching the controller")
+                    .tag("route", name)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ru.hogwarts.school.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Замеряет выполнение каждого SQL-запроса (execute*, для executeQuery — до получения ResultSet)
+ * и пишет время в {@link SqlStatistics}. Запросы дольше threshold попадают в лог
+ * {@code ru.hogwarts.school.sql.slow} с вероятностью sampleRate. В лог и статистику идёт только
+ * форма запроса: значения параметров не логируются, литералы заменены на ?.
+ */
+public class SlowQueryLoggingDataSource extends DelegatingDataSource {
+    private static final Logger slowLog = LoggerFactory.getLogger("ru.hogwarts.school.sql.slow");
+
+    private final SqlStatistics statistics;
+    private final long thresholdNanos;
+    private final double sampleRate;
+
+    public SlowQueryLoggingDataSource(DataSource targetDataSource, SqlStatistics statistics,
+                                      Duration threshold, double sampleRate) {
+        super(targetDataSource);
+        this.statistics = statistics;
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return timing(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return timing(super.getConnection(username, password));
+    }
+
+    private Connection timing(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(method, connection, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && "prepareCall".equals(name)) {
+                return timed(CallableStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement && "prepareStatement".equals(name)) {
+                return timed(PreparedStatement.class, statement, (String) args[0]);
+            }
+            if (result instanceof Statement statement && "createStatement".equals(name)) {
+                return timed(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    // preparedSql — текст PreparedStatement; у Statement текст приходит в execute*(sql) или addBatch(sql)
+    private <T extends Statement> T timed(Class<T> type, T statement, String preparedSql) {
+        String[] batchSql = new String[1];
+        return proxy(type, statement, (method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if ("addBatch".equals(name) && args != null && args.length == 1 && batchSql[0] == null) {
+                    batchSql[0] = (String) args[0];
+                }
+                return invoke(method, statement, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text
+                    : preparedSql != null ? preparedSql : batchSql[0];
+            long started = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = invoke(method, statement, args);
+                failed = false;
+                return result;
+            } finally {
+                if ("executeBatch".equals(name) || "executeLargeBatch".equals(name)) {
+                    batchSql[0] = null;
+                }
+                if (sql != null) {
+                    record(sql, System.nanoTime() - started, failed);
+                }
+            }
+        });
+    }
+
+    private void record(String sql, long nanos, boolean failed) {
+        boolean slow = nanos >= thresholdNanos;
+        String shape = statistics.record(sql, nanos, failed, slow);
+        if (slow && slowLog.isWarnEnabled()
+                && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            slowLog.warn("Slow SQL {} ms{}: {}", String.format("%.1f", nanos / 1e6), failed ? " (failed)" : "",
+                    shape != null ? shape : SqlShapes.normalize(sql));
+        }
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            String name = method.getName();
+            if (("unwrap".equals(name) || "isWrapperFor".equals(name)) && ((Class<?>) args[0]).isInstance(proxy)) {
+                return "unwrap".equals(name) ? proxy : true;
+            }
+            return handler.handle(method, args);
+        });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Вместо spring.jpa.show-sql: основной DataSource оборачивается {@link SlowQueryLoggingDataSource},
+ * который считает время запросов по формам и логирует только медленные.
+ */
+@Configuration
+@ConditionalOnProperty(value = "school.sql.stats.enabled", matchIfMissing = true)
+public class SqlLoggingConfig {
+    // Снаружи семафора виртуальных потоков (VirtualThreadsConfig.ORDER): тот ищет сам HikariDataSource
+    static final int ORDER = VirtualThreadsConfig.ORDER + 10;
+
+    @Bean
+    public SqlStatistics sqlStatistics(@Value("${school.sql.stats.max-shapes:500}") int maxShapes) {
+        return new SqlStatistics(maxShapes);
+    }
+
+    @Bean
+    public SqlStatisticsEndpoint sqlStatisticsEndpoint(SqlStatistics sqlStatistics) {
+        return new SqlStatisticsEndpoint(sqlStatistics);
+    }
+
+    // Оборачивается только бин dataSource: внутренние пулы (например, маршрутизатор реплик) уже за ним
+    @Bean
+    public static BeanPostProcessor slowQueryLoggingDataSourcePostProcessor(Environment environment,
+                                                                             ObjectProvider<SqlStatistics> statistics) {
+        Duration threshold = environment.getProperty("school.sql.slow-query.threshold", Duration.class,
+                Duration.ofMillis(200));
+        double sampleRate = environment.getProperty("school.sql.slow-query.sample-rate", Double.class, 1.0);
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalStateException("school.sql.slow-query.sample-rate must be between 0 and 1, got " + sampleRate);
+        }
+        return new SlowQueryLoggingPostProcessor(statistics, threshold, sampleRate);
+    }
+
+    private static final class SlowQueryLoggingPostProcessor implements BeanPostProcessor, Ordered {
+        private final ObjectProvider<SqlStatistics> statistics;
+        private final Duration threshold;
+        private final double sampleRate;
+
+        private SlowQueryLoggingPostProcessor(ObjectProvider<SqlStatistics> statistics, Duration threshold,
+                                              double sampleRate) {
+            this.statistics = statistics;
+            this.threshold = threshold;
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                return new SlowQueryLoggingDataSource(dataSource, statistics.getObject(), threshold, sampleRate);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+}
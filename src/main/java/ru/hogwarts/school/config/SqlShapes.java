@@ -0,0 +1,84 @@
+package ru.hogwarts.school.config;
+
+import java.util.regex.Pattern;
+
+/**
+ * Форма запроса: строковые и числовые литералы заменены на ?, комментарии убраны, пробелы
+ * схлопнуты, списки IN (?, ?, ...) сведены к IN (?). Запросы, которые отличаются только
+ * значениями, получают одну форму, а значения не попадают ни в лог, ни в статистику.
+ */
+final class SqlShapes {
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin \\(\\?(?:, ?\\?)+\\)");
+
+    private SqlShapes() {
+    }
+
+    static String normalize(String sql) {
+        StringBuilder shape = new StringBuilder(sql.length());
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                // Строковый литерал, '' внутри — экранированная кавычка
+                i++;
+                while (i < length) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                shape.append('?');
+                i++;
+            } else if (c == '"') {
+                // Идентификатор в кавычках остаётся как есть
+                int end = sql.indexOf('"', i + 1);
+                end = end < 0 ? length : end + 1;
+                shape.append(sql, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? length : end;
+            } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (Character.isDigit(c) && !isIdentifierPart(shape)) {
+                while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                shape.append('?');
+            } else if (Character.isWhitespace(c)) {
+                while (i < length && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                if (!shape.isEmpty() && shape.charAt(shape.length() - 1) != ' ') {
+                    shape.append(' ');
+                }
+            } else {
+                shape.append(c);
+                i++;
+            }
+        }
+        int end = shape.length();
+        while (end > 0 && shape.charAt(end - 1) == ' ') {
+            end--;
+        }
+        shape.setLength(end);
+        String result = shape.toString();
+        return result.indexOf('?') >= 0 ? IN_LIST.matcher(result).replaceAll("in (?)") : result;
+    }
+
+    // Цифра после буквы, цифры или _ — часть имени (students_seq1, t2), а не литерал
+    private static boolean isIdentifierPart(StringBuilder shape) {
+        if (shape.isEmpty()) {
+            return false;
+        }
+        char previous = shape.charAt(shape.length() - 1);
+        return Character.isLetterOrDigit(previous) || previous == '_' || previous == '$';
+    }
+}
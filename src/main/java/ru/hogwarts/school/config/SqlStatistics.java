@@ -0,0 +1,122 @@
+package ru.hogwarts.school.config;
+
+import ru.hogwarts.school.dto.SqlShapeStats;
+import ru.hogwarts.school.dto.SqlStatsReport;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Число выполнений и время SQL-запросов по формам ({@link SqlShapes}). Текст запроса
+ * нормализуется один раз: дальше форма находится по исходной строке, которую
+ * Hibernate и JdbcTemplate переиспользуют. Число форм ограничено maxShapes: запросы
+ * сверх предела только считаются в untracked.
+ */
+public class SqlStatistics {
+
+    private final int maxShapes;
+    private final Map<String, Shape> byShape = new ConcurrentHashMap<>();
+    // Исходный текст -> форма; запросы с литералами дают много текстов на одну форму, поэтому предел больше
+    private final Map<String, Shape> bySql = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    public SqlStatistics(int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * @return форма запроса или null, если предел форм исчерпан
+     */
+    String record(String sql, long nanos, boolean failed, boolean slow) {
+        statements.increment();
+        Shape shape = shapeOf(sql);
+        if (shape == null) {
+            untracked.increment();
+            return null;
+        }
+        shape.count.increment();
+        shape.totalNanos.add(nanos);
+        shape.maxNanos.accumulate(nanos);
+        if (failed) {
+            shape.errors.increment();
+        }
+        if (slow) {
+            shape.slow.increment();
+        }
+        return shape.sql;
+    }
+
+    /**
+     * @param orderBy total, mean, max, count или errors
+     */
+    public SqlStatsReport report(String orderBy, int limit) {
+        Comparator<SqlShapeStats> order = switch (orderBy.toLowerCase(Locale.ROOT)) {
+            case "total" -> Comparator.comparingDouble(SqlShapeStats::totalMillis);
+            case "mean" -> Comparator.comparingDouble(SqlShapeStats::meanMillis);
+            case "max" -> Comparator.comparingDouble(SqlShapeStats::maxMillis);
+            case "count" -> Comparator.comparingLong(SqlShapeStats::count);
+            case "errors" -> Comparator.comparingLong(SqlShapeStats::errors);
+            default -> throw new IllegalArgumentException(
+                    "orderBy must be one of total, mean, max, count, errors, got '" + orderBy + "'");
+        };
+        List<SqlShapeStats> top = byShape.values().stream()
+                .map(Shape::snapshot)
+                .filter(stats -> stats.count() > 0)
+                .sorted(order.reversed())
+                .limit(limit)
+                .toList();
+        return new SqlStatsReport(statements.sum(), untracked.sum(), byShape.size(), top);
+    }
+
+    public void reset() {
+        byShape.clear();
+        bySql.clear();
+        statements.reset();
+        untracked.reset();
+    }
+
+    private Shape shapeOf(String sql) {
+        Shape shape = bySql.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        String normalized = SqlShapes.normalize(sql);
+        shape = byShape.get(normalized);
+        if (shape == null) {
+            if (byShape.size() >= maxShapes) {
+                return null;
+            }
+            shape = byShape.computeIfAbsent(normalized, Shape::new);
+        }
+        if (bySql.size() < maxShapes * 4) {
+            bySql.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private static final class Shape {
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        SqlShapeStats snapshot() {
+            long executions = count.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            return new SqlShapeStats(sql, executions, errors.sum(), slow.sum(), totalMillis,
+                    executions > 0 ? totalMillis / executions : 0, maxNanos.get() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package ru.hogwarts.school.config;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import ru.hogwarts.school.dto.SqlStatsReport;
+
+/**
+ * {@code GET /actuator/sqlstats?orderBy=total&limit=20} — самые дорогие формы SQL-запросов
+ * с момента запуска или последнего {@code DELETE /actuator/sqlstats}.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatisticsEndpoint {
+
+    private final SqlStatistics statistics;
+
+    public SqlStatisticsEndpoint(SqlStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public SqlStatsReport report(@Nullable String orderBy, @Nullable Integer limit) {
+        try {
+            return statistics.report(orderBy != null ? orderBy : "total", limit != null ? Math.max(1, limit) : 50);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
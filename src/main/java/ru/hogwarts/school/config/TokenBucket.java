@@ -0,0 +1,34 @@
+package ru.hogwarts.school.config;
+
+/**
+ * Корзина токенов: burst токенов в запасе, пополнение ratePerSecond в секунду.
+ * Время передаётся снаружи (System.nanoTime), чтобы корзину можно было проверить без ожиданий.
+ */
+final class TokenBucket {
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long updatedAt;
+
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.updatedAt = now;
+    }
+
+    /**
+     * @return 0, если токен взят, иначе сколько наносекунд ждать следующего
+     */
+    synchronized long tryConsume(long now) {
+        if (now > updatedAt) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+        }
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,84 @@
+package ru.hogwarts.school.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Режим виртуальных потоков (Java 21+, профиль {@code virtual}). Tomcat и {@code @Async}
+ * переключает сам Spring Boot по {@code spring.threads.virtual.enabled}; здесь доступ к БД
+ * ограничивается семафором по размеру пула Hikari.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+    // Семафор оборачивает сам пул Hikari, раньше остальных обёрток DataSource (SqlLoggingConfig.ORDER)
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE + 10;
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        Duration acquireTimeout = environment.getProperty(
+                "school.db.concurrency-limit.acquire-timeout", Duration.class, Duration.ofSeconds(5));
+        return new ConcurrencyLimitingPostProcessor(acquireTimeout);
+    }
+
+    @Bean
+    public MeterBinder dbConcurrencyLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            ConcurrencyLimitingDataSource limiter = unwrapLimiter(dataSource);
+            if (limiter != null) {
+                Gauge.builder("school.db.concurrency.available", limiter,
+                                ConcurrencyLimitingDataSource::getAvailablePermits)
+                        .description("Free permits of the database concurrency limiter")
+                        .register(registry);
+                Gauge.builder("school.db.concurrency.waiting", limiter,
+                                ConcurrencyLimitingDataSource::getQueueLength)
+                        .description("Threads waiting for a database permit")
+                        .register(registry);
+            }
+        };
+    }
+
+    // Снаружи семафора могут быть другие обёртки (SlowQueryLoggingDataSource), поэтому не instanceof
+    private static ConcurrencyLimitingDataSource unwrapLimiter(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class)
+                    ? dataSource.unwrap(ConcurrencyLimitingDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    private static final class ConcurrencyLimitingPostProcessor implements BeanPostProcessor, Ordered {
+        private final Duration acquireTimeout;
+
+        private ConcurrencyLimitingPostProcessor(Duration acquireTimeout) {
+            this.acquireTimeout = acquireTimeout;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource hikari) {
+                return new ConcurrencyLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+}
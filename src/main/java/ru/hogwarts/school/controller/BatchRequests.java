@@ -0,0 +1,27 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Ограничения на размер пакетных запросов {@code /batch}.
+ */
+final class BatchRequests {
+    static final int MAX_BATCH_SIZE = 1000;
+
+    private BatchRequests() {
+    }
+
+    static <T> List<T> checkSize(List<T> items) {
+        if (items.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "batch must not be empty");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "batch must not contain more than " + MAX_BATCH_SIZE + " items");
+        }
+        return items;
+    }
+}
@@ -0,0 +1,106 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.service.ChangeFeed;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лента изменений студентов и факультетов для инкрементальной синхронизации.
+ * Клиент передаёт в {@code since} позицию последней полученной записи
+ * (заголовок {@value KeysetPagination#NEXT_CURSOR_HEADER} ответа или id SSE-события).
+ * Если записи после курсора уже удалены по сроку хранения, ответ — 410 Gone
+ * (в SSE — событие {@code reset}), и клиенту нужно загрузить данные заново.
+ */
+@RestController
+@RequestMapping("/changes")
+public class ChangeController {
+    static final int MAX_WAIT_SECONDS = 60;
+
+    private final ChangeFeed changeFeed;
+    private final Executor taskExecutor;
+    private final Duration streamTimeout;
+
+    public ChangeController(ChangeFeed changeFeed,
+                            @Qualifier("applicationTaskExecutor") Executor taskExecutor,
+                            @Value("${school.changes.stream-timeout:PT5M}") Duration streamTimeout) {
+        this.changeFeed = changeFeed;
+        this.taskExecutor = taskExecutor;
+        this.streamTimeout = streamTimeout;
+    }
+
+    // wait > 0 — long-poll: если новых записей нет, ответ придёт после следующей публикации
+    // или по истечении wait секунд (пустой список)
+    @GetMapping
+    public DeferredResult<ResponseEntity<List<ChangeEventView>>> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "0") int wait) {
+        if (since < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must not be negative");
+        }
+        if (wait < 0 || wait > MAX_WAIT_SECONDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "wait must be between 0 and " + MAX_WAIT_SECONDS + " seconds");
+        }
+        int pageSize = KeysetPagination.limit(limit);
+        DeferredResult<ResponseEntity<List<ChangeEventView>>> result =
+                new DeferredResult<>(TimeUnit.SECONDS.toMillis(Math.max(wait, 1)));
+
+        List<ChangeEventView> changes = changeFeed.read(since, pageSize);
+        if (!changes.isEmpty() || wait == 0) {
+            result.setResult(page(changes, since));
+            return result;
+        }
+        CompletableFuture<Long> waiter = changeFeed.awaitAfter(since);
+        result.onTimeout(() -> result.setResult(page(List.of(), since)));
+        result.onCompletion(() -> waiter.cancel(false));
+        waiter.thenRunAsync(() -> result.setResult(page(changeFeed.read(since, pageSize), since)), taskExecutor)
+                .exceptionally(error -> {
+                    result.setErrorResult(error instanceof CompletionException ? error.getCause() : error);
+                    return null;
+                });
+        return result;
+    }
+
+    // SSE: сначала отдаётся всё после since (или Last-Event-ID при переподключении), затем новые записи
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long cursor = lastEventId != null ? lastEventId : since;
+        if (cursor < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "since must not be negative");
+        }
+        // Отставший курсор отклоняется до отправки заголовков, пока ещё можно ответить 410
+        changeFeed.read(cursor, 1);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        new ChangeEventStream(changeFeed, emitter, taskExecutor, cursor).start();
+        return emitter;
+    }
+
+    private static ResponseEntity<List<ChangeEventView>> page(List<ChangeEventView> changes, long since) {
+        long cursor = changes.isEmpty() ? since : changes.get(changes.size() - 1).position();
+        return ResponseEntity.ok()
+                .header(KeysetPagination.NEXT_CURSOR_HEADER, Long.toString(cursor))
+                .body(changes);
+    }
+}
@@ -0,0 +1,100 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.service.ChangeFeed;
+import ru.hogwarts.school.service.ChangesPurgedException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Одна SSE-подписка на ленту изменений: дочитывает ленту после курсора, затем ждёт
+ * следующей публикации. Поток запроса и потоки ретранслятора не блокируются.
+ */
+final class ChangeEventStream {
+    private static final int BATCH_SIZE = 500;
+
+    private final ChangeFeed changeFeed;
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private long cursor;
+    private volatile boolean closed;
+    private volatile CompletableFuture<Long> waiter;
+
+    ChangeEventStream(ChangeFeed changeFeed, SseEmitter emitter, Executor executor, long cursor) {
+        this.changeFeed = changeFeed;
+        this.emitter = emitter;
+        this.executor = executor;
+        this.cursor = cursor;
+        emitter.onCompletion(this::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> close());
+    }
+
+    // Комментарий сразу отправляет заголовки ответа: без него клиент ждал бы первого изменения
+    void start() {
+        try {
+            emitter.send(SseEmitter.event().comment("changes after " + cursor));
+            executor.execute(this::pump);
+        } catch (IOException | RuntimeException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // Вызовы pump не пересекаются: следующий планируется только после завершения предыдущего
+    void pump() {
+        if (closed) {
+            return;
+        }
+        try {
+            List<ChangeEventView> changes;
+            do {
+                changes = changeFeed.read(cursor, BATCH_SIZE);
+                for (ChangeEventView change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.position()))
+                            .name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                    cursor = change.position();
+                }
+            } while (changes.size() == BATCH_SIZE);
+            CompletableFuture<Long> next = changeFeed.awaitAfter(cursor);
+            waiter = next;
+            if (closed) {
+                next.cancel(false);
+                return;
+            }
+            next.thenRunAsync(this::pump, executor);
+        } catch (ChangesPurgedException e) {
+            reset(e);
+        } catch (IOException | RuntimeException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // Курсор отстал за время подписки: клиент получает позицию, с которой продолжить после перезагрузки
+    private void reset(ChangesPurgedException e) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("reset")
+                    .data(Map.of("firstPosition", e.getFirstPosition(), "lastPosition", e.getLastPosition()),
+                            MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException | RuntimeException error) {
+            emitter.completeWithError(error);
+        }
+    }
+
+    private void close() {
+        closed = true;
+        CompletableFuture<Long> current = waiter;
+        if (current != null) {
+            current.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.hogwarts.school.dto.CollectionVersion;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * ETag по колонке @Version: для записи — сильный из id и версии, для списка — слабый из {@link CollectionVersion}.
+ * Условные запросы проверяются по версии до загрузки данных: If-None-Match даёт 304,
+ * несовпадение If-Match у PUT — 412.
+ */
+final class ETags {
+    private static final String ANY = "*";
+
+    private ETags() {
+    }
+
+    static String of(Long id, Long version) {
+        return "\"" + id + "-" + Objects.requireNonNullElse(version, 0L) + "\"";
+    }
+
+    // Слабый: тело списка отличается байтами при сжатии (Tomcat не сжимает ответы с сильным ETag),
+    // а сравнивается он только в If-None-Match
+    static String of(CollectionVersion version) {
+        return "W/\"c" + version.count() + "-" + version.maxId() + "-" + version.versionSum() + "\"";
+    }
+
+    // Та же отметка, что вернул бы getCollectionVersion(), но посчитанная по уже загруженному полному списку
+    static <T> String of(List<T> items, ToLongFunction<T> idOf, Function<T, Long> versionOf) {
+        long maxId = 0;
+        long versionSum = 0;
+        for (T item : items) {
+            maxId = Math.max(maxId, idOf.applyAsLong(item));
+            versionSum += Objects.requireNonNullElse(versionOf.apply(item), 0L);
+        }
+        return of(new CollectionVersion(items.size(), maxId, versionSum));
+    }
+
+    // If-None-Match сравнивается слабо: префикс W/ не учитывается
+    static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(ANY) || stripWeak(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match сравнивается строго: слабый ETag не совпадает никогда
+    static boolean matches(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(ANY) || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isAny(String ifMatch) {
+        return ifMatch.trim().equals(ANY);
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    static <T> ResponseEntity<T> preconditionFailed() {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
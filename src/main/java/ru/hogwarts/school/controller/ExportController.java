@@ -0,0 +1,107 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.ExportResult;
+import ru.hogwarts.school.service.DataExportService;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Выгрузка студентов и факультетов для отчётов: {@code format} — csv или ndjson,
+ * {@code columns} — колонки через запятую (по умолчанию все), {@code gzip=true} — сжатый файл.
+ * GET пишет выгрузку в ответ по мере чтения из БД, POST .../file — в файл на сервере.
+ */
+@RestController
+public class ExportController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType APPLICATION_GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final DataExportService exportService;
+
+    public ExportController(DataExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/student/export")
+    public ResponseEntity<StreamingResponseBody> exportStudents(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> columns,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream(DataExportService.Table.STUDENTS, format, columns, gzip);
+    }
+
+    @GetMapping("/faculty/export")
+    public ResponseEntity<StreamingResponseBody> exportFaculties(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> columns,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return stream(DataExportService.Table.FACULTIES, format, columns, gzip);
+    }
+
+    @PostMapping("/student/export/file")
+    public ResponseEntity<ExportResult> exportStudentsToFile(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> columns,
+            @RequestParam(defaultValue = "false") boolean gzip) throws IOException {
+        return toFile(DataExportService.Table.STUDENTS, format, columns, gzip);
+    }
+
+    @PostMapping("/faculty/export/file")
+    public ResponseEntity<ExportResult> exportFacultiesToFile(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) List<String> columns,
+            @RequestParam(defaultValue = "false") boolean gzip) throws IOException {
+        return toFile(DataExportService.Table.FACULTIES, format, columns, gzip);
+    }
+
+    // Колонки проверяются до начала ответа: после первого байта статус 400 уже не отправить
+    private ResponseEntity<StreamingResponseBody> stream(DataExportService.Table table, String format,
+                                                         List<String> columns, boolean gzip) {
+        DataExportService.Format exportFormat = format(format);
+        List<String> selected = columns(table, columns);
+        String fileName = table.tableName() + "." + exportFormat.extension() + (gzip ? ".gz" : "");
+        MediaType contentType = gzip ? APPLICATION_GZIP
+                : exportFormat == DataExportService.Format.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON;
+        StreamingResponseBody body = out -> exportService.export(table, exportFormat, selected, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+
+    private ResponseEntity<ExportResult> toFile(DataExportService.Table table, String format,
+                                                List<String> columns, boolean gzip) throws IOException {
+        DataExportService.Format exportFormat = format(format);
+        List<String> selected = columns(table, columns);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(exportService.exportToFile(table, exportFormat, selected, gzip));
+    }
+
+    private static DataExportService.Format format(String format) {
+        try {
+            return DataExportService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or ndjson");
+        }
+    }
+
+    private List<String> columns(DataExportService.Table table, List<String> columns) {
+        try {
+            return exportService.resolveColumns(table, columns);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
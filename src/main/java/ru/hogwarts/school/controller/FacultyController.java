@@ -1,10 +1,21 @@
 package ru.hogwarts.school.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.ColorStats;
+import ru.hogwarts.school.dto.FacultyStats;
+import ru.hogwarts.school.dto.FacultyView;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentView;
 import ru.hogwarts.school.model.Faculty;
-import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.DataExportService;
 import ru.hogwarts.school.service.FacultyService;
 
 import java.util.List;
@@ -13,9 +24,13 @@ import java.util.List;
 @RequestMapping("/faculty")
 public class FacultyController {
     private final FacultyService facultyService;
+    private final DataExportService exportService;
+    private final ObjectMapper objectMapper;
 
-    public FacultyController(FacultyService facultyService) {
+    public FacultyController(FacultyService facultyService, DataExportService exportService, ObjectMapper objectMapper) {
         this.facultyService = facultyService;
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -24,29 +39,103 @@ public class FacultyController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdFaculty);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createFaculties(@RequestBody List<Faculty> faculties) {
+        return ResponseEntity.ok(facultyService.createFaculties(BatchRequests.checkSize(faculties)));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateFaculties(@RequestBody List<Faculty> faculties) {
+        return ResponseEntity.ok(facultyService.updateFaculties(BatchRequests.checkSize(faculties)));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteFaculties(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(facultyService.deleteFaculties(BatchRequests.checkSize(ids)));
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<FacultyStats>> getFacultyStats() {
+        return ResponseEntity.ok(facultyService.getFacultyStats());
+    }
+
+    @GetMapping("/stats/colors")
+    public ResponseEntity<List<ColorStats>> getColorStats() {
+        return ResponseEntity.ok(facultyService.getColorStats());
+    }
+
+    // Повторный запрос с If-None-Match проверяется по версии, без загрузки и сериализации сущности
     @GetMapping("/{id}")
-    public ResponseEntity<Faculty> getFaculty(@PathVariable long id) {
+    public ResponseEntity<Faculty> getFaculty(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = facultyService.getFacultyVersion(id);
+            if (version == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            String etag = ETags.of(id, version);
+            if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+        }
         Faculty faculty = facultyService.getFacultyById(id);
         if (faculty == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(faculty);
+        return ResponseEntity.ok().eTag(ETags.of(faculty.getId(), faculty.getVersion())).body(faculty);
     }
 
     @GetMapping
-    public ResponseEntity<List<Faculty>> getAllFaculties() {
-        return ResponseEntity.ok(facultyService.getAllFaculties());
+    public ResponseEntity<List<FacultyView>> getAllFaculties(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    facultyService.getFacultiesAfter(KeysetPagination.after(after), pageSize),
+                    pageSize, FacultyView::id);
+        }
+        // Полный список опрашивают чаще всего: ETag по отметке таблицы, 304 без выборки строк
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(facultyService.getFacultyCollectionVersion());
+            if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+        }
+        List<FacultyView> faculties = facultyService.getAllFaculties();
+        return ResponseEntity.ok().eTag(ETags.of(faculties, FacultyView::id, FacultyView::version)).body(faculties);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFaculties() {
+        return NdjsonStreaming.of(objectMapper, exportService::forEachFaculty);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Faculty> updateFaculty(
             @PathVariable long id,
-            @RequestBody Faculty faculty) {
-        Faculty updatedFaculty = facultyService.updateFaculty(id, faculty);
+            @RequestBody Faculty faculty,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Faculty updatedFaculty;
+        if (ifMatch == null) {
+            updatedFaculty = facultyService.updateFaculty(id, faculty);
+        } else {
+            Long version = facultyService.getFacultyVersion(id);
+            if (version == null || !ETags.matches(ifMatch, ETags.of(id, version))) {
+                return ETags.preconditionFailed();
+            }
+            try {
+                updatedFaculty = facultyService.updateFaculty(id, faculty, ETags.isAny(ifMatch) ? null : version);
+            } catch (OptimisticLockingFailureException e) {
+                return ETags.preconditionFailed();
+            }
+        }
         if (updatedFaculty == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(updatedFaculty);
+        return ResponseEntity.ok().eTag(ETags.of(updatedFaculty.getId(), updatedFaculty.getVersion())).body(updatedFaculty);
     }
 
     @DeleteMapping("/{id}")
@@ -59,20 +148,60 @@ public class FacultyController {
     }
 
     @GetMapping("/color/{color}")
-    public ResponseEntity<List<Faculty>> getFacultiesByColor(@PathVariable String color) {
-        List<Faculty> faculties = facultyService.getFacultiesByColor(color);
+    public ResponseEntity<List<FacultyView>> getFacultiesByColor(
+            @PathVariable String color,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    facultyService.getFacultiesByColorAfter(color, KeysetPagination.after(after), pageSize),
+                    pageSize, FacultyView::id);
+        }
+        List<FacultyView> faculties = facultyService.getFacultiesByColor(color);
         return ResponseEntity.ok(faculties);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<Faculty>> getFacultiesByNameOrColor(
-            @RequestParam String search) {
-        List<Faculty> faculties = facultyService.getFacultiesByNameOrColor(search);
+    public ResponseEntity<List<FacultyView>> getFacultiesByNameOrColor(
+            @RequestParam String search,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    facultyService.getFacultiesByNameOrColorAfter(search, KeysetPagination.after(after), pageSize),
+                    pageSize, FacultyView::id);
+        }
+        List<FacultyView> faculties = facultyService.getFacultiesByNameOrColor(search);
         return ResponseEntity.ok(faculties);
     }
+
+    // Поиск по имени и цвету с опечатками и по префиксу, результаты отсортированы по релевантности
+    @GetMapping("/search/ranked")
+    public ResponseEntity<List<SearchHit<Faculty>>> searchFaculties(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(facultyService.searchFaculties(RankedSearch.query(q), RankedSearch.limit(limit)));
+    }
+
     @GetMapping("/{id}/students")
-    public ResponseEntity<List<Student>> getFacultyStudents(@PathVariable long id) {
-        List<Student> students = facultyService.getFacultyStudents(id);
+    public ResponseEntity<List<StudentView>> getFacultyStudents(
+            @PathVariable long id,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    facultyService.getFacultyStudentsAfter(id, KeysetPagination.after(after), pageSize),
+                    pageSize, StudentView::id);
+        }
+        List<StudentView> students = facultyService.getFacultyStudents(id);
         return ResponseEntity.ok(students);
     }
+
+    @GetMapping("/{id}/students/count")
+    public ResponseEntity<Long> getFacultyStudentCount(@PathVariable long id) {
+        return ResponseEntity.ok(facultyService.getFacultyStudentCount(id));
+    }
 }
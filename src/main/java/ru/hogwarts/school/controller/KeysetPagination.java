@@ -0,0 +1,49 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Общие правила keyset-пагинации для списочных эндпоинтов.
+ * Клиент передаёт {@code after} (id последней полученной записи) и {@code limit};
+ * если страница заполнена целиком, id её последней записи возвращается в заголовке
+ * {@value #NEXT_CURSOR_HEADER}.
+ */
+final class KeysetPagination {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+
+    private KeysetPagination() {
+    }
+
+    static boolean requested(Long after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    static long after(Long after) {
+        return after != null ? after : 0L;
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    static <T> ResponseEntity<List<T>> page(List<T> items, int limit, ToLongFunction<T> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, Long.toString(idOf.applyAsLong(items.get(items.size() - 1))));
+        }
+        return response.body(items);
+    }
+}
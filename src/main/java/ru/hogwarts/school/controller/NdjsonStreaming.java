@@ -0,0 +1,56 @@
+package ru.hogwarts.school.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Ответ в формате NDJSON: каждая запись пишется в выходной поток отдельной строкой
+ * сразу после чтения из БД, поэтому расход памяти не зависит от размера выборки.
+ * Все строки идут через один генератор, а до клиента (и через sync-flush gzip) ответ
+ * сбрасывается раз в {@value #FLUSH_EVERY_ROWS} записей, а не после каждой.
+ * Источник держит соединение, пока клиент не дочитает ответ, поэтому строки берутся
+ * из пула выгрузок ({@code DataExportService}), а не из основного пула.
+ */
+final class NdjsonStreaming {
+    static final int FLUSH_EVERY_ROWS = 500;
+
+    private NdjsonStreaming() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = writer.createGenerator(outputStream).setRootValueSeparator(null)) {
+                int[] unflushed = {0};
+                source.accept(item -> {
+                    try {
+                        writer.writeValue(generator, item);
+                        generator.writeRaw('\n');
+                        if (++unflushed[0] == FLUSH_EVERY_ROWS) {
+                            generator.flush();
+                            unflushed[0] = 0;
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import ru.hogwarts.school.service.SearchService;
+
+/**
+ * Проверка параметров ранжированного поиска {@code /search/ranked}.
+ */
+final class RankedSearch {
+    static final int DEFAULT_LIMIT = 20;
+
+    private RankedSearch() {
+    }
+
+    static String query(String q) {
+        if (q == null || q.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must not be blank");
+        }
+        return q.strip();
+    }
+
+    static int limit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0 || limit > SearchService.MAX_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "limit must be between 1 and " + SearchService.MAX_LIMIT);
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,77 @@
+package ru.hogwarts.school.controller;
+
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import ru.hogwarts.school.config.AdmissionRejectedException;
+import ru.hogwarts.school.service.ChangesPurgedException;
+
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+/**
+ * Ошибки сервисов, у которых есть осмысленный HTTP-статус.
+ */
+@RestControllerAdvice
+public class RestExceptionHandler {
+    static final String CONFLICT_RETRY_AFTER_SECONDS = "1";
+
+    // Сервис уже повторил обновление (@RetryOnConflict); Retry-After разводит повторы клиентов во времени
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ProblemDetail> handleConflict(OptimisticLockingFailureException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The resource is being modified concurrently, retry the request later");
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, CONFLICT_RETRY_AFTER_SECONDS)
+                .body(problem);
+    }
+
+    // Отказ допуска (RequestAdmissionInterceptor): контроллер не вызывался, повтор после Retry-After безопасен
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<ProblemDetail> handleAdmissionRejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(e.getStatus())
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(ProblemDetail.forStatusAndDetail(e.getStatus(), e.getMessage()));
+    }
+
+    // Курсор ленты /changes старше сохранённых записей: без перезагрузки клиент пропустил бы изменения
+    @ExceptionHandler(ChangesPurgedException.class)
+    public ResponseEntity<ProblemDetail> handleChangesPurged(ChangesPurgedException e) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.GONE, e.getMessage());
+        problem.setProperty("firstPosition", e.getFirstPosition());
+        problem.setProperty("lastPosition", e.getLastPosition());
+        return ResponseEntity.status(HttpStatus.GONE).body(problem);
+    }
+
+    // Тело запроса не прошло @Valid
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ProblemDetail> handleInvalidBody(MethodArgumentNotValidException e) {
+        String detail = e.getBindingResult().getFieldErrors().stream()
+                .sorted(Comparator.comparing(FieldError::getField))
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining("; "));
+        return badRequest(detail);
+    }
+
+    // Ограничения сущности, проверенные сервисом или Hibernate Validator при сохранении
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<ProblemDetail> handleConstraintViolation(ConstraintViolationException e) {
+        String detail = e.getConstraintViolations().stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+        return badRequest(detail);
+    }
+
+    private ResponseEntity<ProblemDetail> badRequest(String detail) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, detail));
+    }
+}
@@ -1,10 +1,22 @@
 package ru.hogwarts.school.controller;
 
+import jakarta.validation.Valid;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hogwarts.school.dto.AgeBucket;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.dto.StudentView;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.DataExportService;
 import ru.hogwarts.school.service.StudentService;
 
 import java.util.List;
@@ -13,54 +25,184 @@ import java.util.List;
 @RequestMapping("/student")
 public class StudentController {
     private final StudentService studentService;
+    private final DataExportService exportService;
+    private final ObjectMapper objectMapper;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, DataExportService exportService, ObjectMapper objectMapper) {
         this.studentService = studentService;
+        this.exportService = exportService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    public ResponseEntity<Student> createStudent(@RequestBody Student student) {
+    public ResponseEntity<Student> createStudent(@Valid @RequestBody Student student) {
         Student createdStudent = studentService.createStudent(student);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdStudent);
     }
 
+    // Пакеты без @Valid: невалидные элементы сервис возвращает как INVALID, остальные сохраняются
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> createStudents(@RequestBody List<Student> students) {
+        return ResponseEntity.ok(studentService.createStudents(BatchRequests.checkSize(students)));
+    }
+
+    @PutMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> updateStudents(@RequestBody List<Student> students) {
+        return ResponseEntity.ok(studentService.updateStudents(BatchRequests.checkSize(students)));
+    }
+
+    @DeleteMapping("/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteStudents(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(studentService.deleteStudents(BatchRequests.checkSize(ids)));
+    }
+
     @GetMapping("/age")
-    public ResponseEntity<List<Student>> getStudentsByAgeRange(
+    public ResponseEntity<List<StudentView>> getStudentsByAgeRange(
             @RequestParam int min,
-            @RequestParam int max) {
-        List<Student> students = studentService.getStudentsByAgeBetween(min, max);
+            @RequestParam int max,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    studentService.getStudentsByAgeBetweenAfter(min, max, KeysetPagination.after(after), pageSize),
+                    pageSize, StudentView::id);
+        }
+        List<StudentView> students = studentService.getStudentsByAgeBetween(min, max);
         return ResponseEntity.ok(students);
     }
 
     @GetMapping("/age/{age}")
-    public ResponseEntity<List<Student>> getStudentsByAge(@PathVariable int age) {
-        List<Student> students = studentService.getStudentsByAge(age);
+    public ResponseEntity<List<StudentView>> getStudentsByAge(
+            @PathVariable int age,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    studentService.getStudentsByAgeAfter(age, KeysetPagination.after(after), pageSize),
+                    pageSize, StudentView::id);
+        }
+        List<StudentView> students = studentService.getStudentsByAge(age);
         return ResponseEntity.ok(students);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<StudentView>> getStudentsByName(
+            @RequestParam String name,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    studentService.getStudentsByNameAfter(name, KeysetPagination.after(after), pageSize),
+                    pageSize, StudentView::id);
+        }
+        return ResponseEntity.ok(studentService.getStudentsByName(name));
+    }
+
+    // Поиск с опечатками и по префиксу, результаты отсортированы по релевантности
+    @GetMapping("/search/ranked")
+    public ResponseEntity<List<SearchHit<Student>>> searchStudents(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(studentService.searchStudents(RankedSearch.query(q), RankedSearch.limit(limit)));
+    }
+
+    // Студенты без факультета отдаются только страницами; без after/limit — первая страница
+    @GetMapping("/without-faculty")
+    public ResponseEntity<List<StudentView>> getStudentsWithoutFaculty(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = KeysetPagination.limit(limit);
+        return KeysetPagination.page(
+                studentService.getStudentsWithoutFacultyAfter(KeysetPagination.after(after), pageSize),
+                pageSize, StudentView::id);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<StudentStats> getStudentStats() {
+        return ResponseEntity.ok(studentService.getStudentStats());
+    }
+
+    @GetMapping("/stats/age-histogram")
+    public ResponseEntity<List<AgeBucket>> getAgeHistogram() {
+        return ResponseEntity.ok(studentService.getAgeHistogram());
+    }
+
+    // Повторный запрос с If-None-Match проверяется по версии, без загрузки и сериализации сущности
     @GetMapping("/{id}")
-    public ResponseEntity<Student> getStudent(@PathVariable long id) {
+    public ResponseEntity<Student> getStudent(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            Long version = studentService.getStudentVersion(id);
+            if (version == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            String etag = ETags.of(id, version);
+            if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+        }
         Student student = studentService.getStudentById(id);
         if (student == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(student);
+        return ResponseEntity.ok().eTag(ETags.of(student.getId(), student.getVersion())).body(student);
     }
 
     @GetMapping
-    public ResponseEntity<List<Student>> getAllStudents() {
-        return ResponseEntity.ok(studentService.getAllStudents());
+    public ResponseEntity<List<StudentView>> getAllStudents(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (KeysetPagination.requested(after, limit)) {
+            int pageSize = KeysetPagination.limit(limit);
+            return KeysetPagination.page(
+                    studentService.getStudentsAfter(KeysetPagination.after(after), pageSize),
+                    pageSize, StudentView::id);
+        }
+        // Полный список опрашивают чаще всего: ETag по отметке таблицы, 304 без выборки строк
+        if (ifNoneMatch != null) {
+            String etag = ETags.of(studentService.getStudentCollectionVersion());
+            if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ETags.notModified(etag);
+            }
+        }
+        List<StudentView> students = studentService.getAllStudents();
+        return ResponseEntity.ok().eTag(ETags.of(students, StudentView::id, StudentView::version)).body(students);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllStudents() {
+        return NdjsonStreaming.of(objectMapper, exportService::forEachStudent);
+    }
+
+    // Обновление частичное (незаданные поля не меняются), поэтому тело проверяет сервис после слияния
     @PutMapping("/{id}")
     public ResponseEntity<Student> updateStudent(
             @PathVariable long id,
-            @RequestBody Student student) {
-        Student updatedStudent = studentService.updateStudent(id, student);
+            @RequestBody Student student,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Student updatedStudent;
+        if (ifMatch == null) {
+            updatedStudent = studentService.updateStudent(id, student);
+        } else {
+            Long version = studentService.getStudentVersion(id);
+            if (version == null || !ETags.matches(ifMatch, ETags.of(id, version))) {
+                return ETags.preconditionFailed();
+            }
+            try {
+                updatedStudent = studentService.updateStudent(id, student, ETags.isAny(ifMatch) ? null : version);
+            } catch (OptimisticLockingFailureException e) {
+                return ETags.preconditionFailed();
+            }
+        }
         if (updatedStudent == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
-        return ResponseEntity.ok(updatedStudent);
+        return ResponseEntity.ok().eTag(ETags.of(updatedStudent.getId(), updatedStudent.getVersion())).body(updatedStudent);
     }
 
     @DeleteMapping("/{id}")
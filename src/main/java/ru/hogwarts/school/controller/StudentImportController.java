@@ -0,0 +1,85 @@
+package ru.hogwarts.school.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import ru.hogwarts.school.dto.ImportJobStatus;
+import ru.hogwarts.school.service.StudentImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Массовая загрузка студентов из CSV ({@code text/csv}) или NDJSON ({@code application/x-ndjson}).
+ * Ответ 202 с заданием и заголовком Location отправляется сразу после проверки заголовка файла;
+ * остальное тело дочитывается в фоне в асинхронном режиме запроса, а прогресс доступен по Location.
+ * Соединение закрывается, когда файл прочитан. Таймаута асинхронного запроса у ответа нет: чтение тела
+ * потоком импорта ограничено school.import.max-upload-duration, и только его завершение отпускает запрос.
+ */
+@RestController
+@RequestMapping("/student/import")
+public class StudentImportController {
+    static final String TEXT_CSV = "text/csv";
+    private static final long NO_TIMEOUT = -1L;
+
+    private final StudentImportService importService;
+
+    public StudentImportController(StudentImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping(consumes = TEXT_CSV)
+    public ResponseEntity<ResponseBodyEmitter> importCsv(InputStream body) throws IOException {
+        return start(body, StudentImportService.Format.CSV);
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> importNdjson(InputStream body) throws IOException {
+        return start(body, StudentImportService.Format.NDJSON);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ImportJobStatus> getImportStatus(@PathVariable String jobId) {
+        ImportJobStatus status = importService.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    // Состояние отправляется до завершения чтения: emitter сбрасывает его клиенту, как только обработчик вернётся.
+    // Без таймаута контейнер не завершит запрос, пока поток импорта ещё читает его тело
+    private ResponseEntity<ResponseBodyEmitter> start(InputStream body, StudentImportService.Format format)
+            throws IOException {
+        StudentImportService.StartedImport started;
+        try {
+            started = importService.startImport(body, format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many imports in progress");
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(NO_TIMEOUT);
+        emitter.send(started.status(), MediaType.APPLICATION_JSON);
+        started.bodyRead().whenComplete((result, error) -> emitter.complete());
+
+        URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .path("/{jobId}")
+                .buildAndExpand(started.status().id())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(emitter);
+    }
+}
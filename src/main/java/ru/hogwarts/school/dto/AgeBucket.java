@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Столбец гистограммы возрастов: сколько студентов имеют данный возраст.
+ */
+public record AgeBucket(int age, long count) {
+}
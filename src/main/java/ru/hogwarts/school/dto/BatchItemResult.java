@@ -0,0 +1,24 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Результат обработки одного элемента пакетного запроса.
+ * {@code index} — позиция элемента в теле запроса.
+ */
+public record BatchItemResult(int index, Long id, Status status, String error) {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        INVALID
+    }
+
+    public static BatchItemResult of(int index, Long id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult invalid(int index, Long id, String error) {
+        return new BatchItemResult(index, id, Status.INVALID, error);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.hogwarts.school.dto;
+
+import ru.hogwarts.school.model.ChangeEvent;
+
+import java.time.Instant;
+
+/**
+ * Элемент ленты изменений: {@code position} — курсор для следующего запроса ({@code since}),
+ * {@code eventId} позволяет отбросить повторно доставленные записи.
+ */
+public record ChangeEventView(long position, long eventId, String entityType, long entityId,
+                              String operation, String occurredAt) {
+
+    // Для JPQL-проекции: время отдаётся строкой ISO-8601
+    public ChangeEventView(Long position, Long eventId, ChangeEvent.EntityType entityType, Long entityId,
+                           ChangeEvent.Operation operation, Instant occurredAt) {
+        this(position, eventId, entityType.name(), entityId, operation.name(), occurredAt.toString());
+    }
+
+    public static ChangeEventView of(ChangeEvent event) {
+        return new ChangeEventView(event.getPosition(), event.getId(), event.getEntityType(), event.getEntityId(),
+                event.getOperation(), event.getCreatedAt());
+    }
+}
@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Отметка состояния таблицы для ETag списков: вставка меняет count и maxId,
+ * удаление — count, любое обновление увеличивает сумму версий.
+ */
+public record CollectionVersion(long count, long maxId, long versionSum) {
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Статистика по всем факультетам одного цвета.
+ */
+public record ColorStats(String color, long facultyCount, long studentCount, Double averageAge) {
+}
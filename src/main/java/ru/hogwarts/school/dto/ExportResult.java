@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Итог выгрузки таблицы в файл: {@code file} — имя файла в каталоге school.export.dir.
+ */
+public record ExportResult(String file, String table, String format, boolean gzip, long rows, long bytes,
+                           long durationMillis) {
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Число студентов и их средний возраст на факультете. Для факультета без студентов {@code averageAge} равен null.
+ */
+public record FacultyStats(Long facultyId, String name, String color, long studentCount, Double averageAge) {
+}
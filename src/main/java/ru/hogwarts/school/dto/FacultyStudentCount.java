@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Число студентов факультета, посчитанное в БД (сверка счётчиков FacultyEnrollmentCounter).
+ */
+public record FacultyStudentCount(Long facultyId, long count) {
+}
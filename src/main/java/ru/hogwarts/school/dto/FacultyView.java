@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Факультет для чтения: строится конструктором прямо в JPQL-запросе, без загрузки сущности
+ * в persistence context. Сериализуется в тот же JSON, что и {@link ru.hogwarts.school.model.Faculty}.
+ */
+public record FacultyView(Long id, String name, String color, Long version) {
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Отклонённая строка импорта; {@code line} — номер строки во входном файле, начиная с 1.
+ */
+public record ImportError(long line, String message) {
+}
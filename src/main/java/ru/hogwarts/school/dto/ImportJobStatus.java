@@ -0,0 +1,17 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+/**
+ * Прогресс задания импорта. {@code errors} содержит только первые отклонённые строки,
+ * полное их число — в {@code rejected}. Время отдаётся строкой ISO-8601.
+ */
+public record ImportJobStatus(String id, State state, String format, long rowsRead, long imported, long rejected,
+                              List<ImportError> errors, String startedAt, String finishedAt) {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
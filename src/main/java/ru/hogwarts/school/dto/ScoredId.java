@@ -0,0 +1,10 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Проекция нативного поискового запроса: id записи и её релевантность.
+ */
+public interface ScoredId {
+    Long getId();
+
+    double getScore();
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Найденная запись и её релевантность: чем выше {@code score}, тем лучше совпадение.
+ */
+public record SearchHit<T>(T item, double score) {
+}
@@ -0,0 +1,13 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Накопленная статистика одной формы SQL-запроса (значения заменены на ?).
+ */
+public record SqlShapeStats(String sql,
+                            long count,
+                            long errors,
+                            long slow,
+                            double totalMillis,
+                            double meanMillis,
+                            double maxMillis) {
+}
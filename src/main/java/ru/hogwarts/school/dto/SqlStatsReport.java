@@ -0,0 +1,10 @@
+package ru.hogwarts.school.dto;
+
+import java.util.List;
+
+/**
+ * Ответ /actuator/sqlstats: всего выполненных запросов, сколько из них не попало в статистику
+ * по формам из-за предела числа форм, и сами формы в выбранном порядке.
+ */
+public record SqlStatsReport(long statements, long untracked, int shapes, List<SqlShapeStats> top) {
+}
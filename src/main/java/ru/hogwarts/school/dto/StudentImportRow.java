@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Строка файла импорта студентов: колонки CSV {@code name,age,faculty} или объект NDJSON
+ * с теми же полями. {@code faculty} — название факультета, может отсутствовать.
+ */
+public record StudentImportRow(String name, Integer age, String faculty) {
+}
@@ -0,0 +1,7 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Сводная статистика по студентам. Для пустой таблицы {@code averageAge}, {@code minAge} и {@code maxAge} равны null.
+ */
+public record StudentStats(long count, Double averageAge, Integer minAge, Integer maxAge) {
+}
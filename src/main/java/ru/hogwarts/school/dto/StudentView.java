@@ -0,0 +1,8 @@
+package ru.hogwarts.school.dto;
+
+/**
+ * Студент для чтения: строится конструктором прямо в JPQL-запросе, без загрузки сущности
+ * в persistence context. Сериализуется в тот же JSON, что и {@link ru.hogwarts.school.model.Student}.
+ */
+public record StudentView(Long id, String name, int age, Long version, Long facultyId) {
+}
@@ -0,0 +1,88 @@
+package ru.hogwarts.school.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Запись outbox об изменении студента или факультета. Создаётся в транзакции изменения,
+ * позиция в ленте изменений ({@code /changes}) присваивается при публикации.
+ */
+@Entity
+@Table(name = "change_events", indexes = {
+        @Index(name = "idx_change_events_unpublished", columnList = "feed_position, id")
+})
+public class ChangeEvent {
+    public enum EntityType { STUDENT, FACULTY }
+
+    public enum Operation { CREATED, UPDATED, DELETED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_events_seq")
+    @SequenceGenerator(name = "change_events_seq", sequenceName = "change_events_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Operation operation;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "feed_position", unique = true)
+    private Long position;
+
+    protected ChangeEvent() {
+    }
+
+    public ChangeEvent(EntityType entityType, Long entityId, Operation operation) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.operation = operation;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public void setPosition(Long position) {
+        this.position = position;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" +
+                "id=" + id +
+                ", " + entityType + " " + entityId + " " + operation +
+                ", position=" + position +
+                '}';
+    }
+}
@@ -2,15 +2,22 @@ package ru.hogwarts.school.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;  // ← Добавьте импорт, если решите использовать JsonIgnore здесь
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.ArrayList;  // ← Добавьте для инициализации списка
 import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "faculties")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "faculty")
+@Table(name = "faculties", indexes = {
+        @Index(name = "idx_faculties_color", columnList = "color")
+})
 public class Faculty {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "faculties_seq")
+    @SequenceGenerator(name = "faculties_seq", sequenceName = "faculties_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -22,7 +29,9 @@ public class Faculty {
     @Version
     private Long version = 0L;
 
+    // Коллекция ленивая и не сериализуется: студентов факультета отдают отдельные запросы
     @OneToMany(mappedBy = "faculty", cascade = CascadeType.ALL, orphanRemoval = true)
+    @JsonIgnore
     private List<Student> students = new ArrayList<>();
 
     public Faculty() {
@@ -105,7 +114,6 @@ public class Faculty {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", color='" + color + '\'' +
-                ", studentsCount=" + (students != null ? students.size() : 0) +  // ← Полезно для отладки
                 '}';
     }
 }
\ No newline at end of file
@@ -3,17 +3,37 @@ package ru.hogwarts.school.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Objects;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
 @Entity
-@Table(name = "students")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "student")
+// Индексы создаются миграциями Flyway (V2__query_indexes.sql), здесь перечислены для справки
+@Table(name = "students", indexes = {
+        @Index(name = "idx_students_faculty_id", columnList = "faculty_id"),
+        @Index(name = "idx_students_age", columnList = "age"),
+        @Index(name = "idx_students_name", columnList = "name"),
+        @Index(name = "idx_students_faculty_id_age", columnList = "faculty_id, age")
+})
 public class Student {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "students_seq")
+    @SequenceGenerator(name = "students_seq", sequenceName = "students_seq", allocationSize = 50)
     private Long id;
 
+    @NotBlank
+    @Size(max = 255)
     private String name;
+
+    @Positive
+    @Max(150)
     private int age;
 
     @Version
@@ -0,0 +1,38 @@
+package ru.hogwarts.school.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.model.ChangeEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeEventRepository extends JpaRepository<ChangeEvent, Long> {
+
+    // Очередь ретранслятора, индекс idx_change_events_unpublished
+    @Query("select e from ChangeEvent e where e.position is null order by e.id")
+    List<ChangeEvent> findUnpublished(Limit limit);
+
+    @Query("select coalesce(max(e.position), 0) from ChangeEvent e")
+    long findLastPosition();
+
+    // null, пока ничего не опубликовано
+    @Query("select min(e.position) from ChangeEvent e")
+    Long findFirstPosition();
+
+    @Query("select max(e.position) from ChangeEvent e where e.position is not null and e.createdAt < :before")
+    Long findLastPositionCreatedBefore(@Param("before") Instant before);
+
+    @Query("select new ru.hogwarts.school.dto.ChangeEventView(e.position, e.id, e.entityType, e.entityId, " +
+            "e.operation, e.createdAt) from ChangeEvent e where e.position > :since order by e.position")
+    List<ChangeEventView> findPublishedAfter(@Param("since") long since, Limit limit);
+
+    // Удаляется только начало ленты: сохранённые позиции всегда идут подряд до последней
+    @Modifying
+    @Query("delete from ChangeEvent e where e.position <= :position")
+    int deletePublishedUpTo(@Param("position") long position);
+}
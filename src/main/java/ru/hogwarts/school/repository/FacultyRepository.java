@@ -1,14 +1,103 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.hogwarts.school.dto.CollectionVersion;
+import ru.hogwarts.school.dto.ColorStats;
+import ru.hogwarts.school.dto.FacultyStats;
+import ru.hogwarts.school.dto.FacultyView;
+import ru.hogwarts.school.dto.ScoredId;
 import ru.hogwarts.school.model.Faculty;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FacultyRepository extends JpaRepository<Faculty, Long> {
-    List<Faculty> findByColor(String color);
-    List<Faculty> findByNameIgnoreCaseOrColorIgnoreCase(String name, String color);
-    List<Faculty> findByNameContainingIgnoreCaseOrColorContainingIgnoreCase(String name, String color);
+    // Чтение без сущностей: строки сразу превращаются в FacultyView, Hibernate не хранит
+    // их в persistence context и не делает снимков для dirty checking
+    String FACULTY_VIEW = "select new ru.hogwarts.school.dto.FacultyView(f.id, f.name, f.color, f.version) " +
+            "from Faculty f ";
+    String NAME_OR_COLOR_CONTAINS = "(upper(f.name) like upper(concat('%', :#{escape(#search)}, '%')) escape :#{escapeCharacter()} " +
+            "or upper(f.color) like upper(concat('%', :#{escape(#search)}, '%')) escape :#{escapeCharacter()}) ";
+
+    // Результаты кэшируются в query cache и сбрасываются Hibernate при любом изменении таблицы faculties
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "faculty-queries")
+    })
     Faculty findByName(String name);
-}
\ No newline at end of file
+    List<Faculty> findByNameIn(Collection<String> names);
+
+    // Keyset-пагинация (методы ...After): следующая страница начинается после последнего отданного id
+    @Query(FACULTY_VIEW + "order by f.id")
+    List<FacultyView> findAllViews();
+
+    @Query(FACULTY_VIEW + "where f.id > :afterId order by f.id")
+    List<FacultyView> findViewsAfter(@Param("afterId") long afterId, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "faculty-queries")
+    })
+    @Query(FACULTY_VIEW + "where f.color = :color order by f.id")
+    List<FacultyView> findViewsByColor(@Param("color") String color);
+
+    @Query(FACULTY_VIEW + "where f.color = :color and f.id > :afterId order by f.id")
+    List<FacultyView> findViewsByColorAfter(@Param("color") String color, @Param("afterId") long afterId, Limit limit);
+
+    @Query(FACULTY_VIEW + "where " + NAME_OR_COLOR_CONTAINS + "order by f.id")
+    List<FacultyView> findViewsByNameOrColorContaining(@Param("search") String search);
+
+    @Query(FACULTY_VIEW + "where " + NAME_OR_COLOR_CONTAINS + "and f.id > :afterId order by f.id")
+    List<FacultyView> findViewsByNameOrColorContainingAfter(@Param("search") String search,
+                                                            @Param("afterId") long afterId,
+                                                            Limit limit);
+
+    // Версии для ETag: проверка If-None-Match/If-Match без загрузки сущности
+    @Query("select coalesce(f.version, 0) from Faculty f where f.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new ru.hogwarts.school.dto.CollectionVersion(count(f), coalesce(max(f.id), 0), " +
+            "coalesce(sum(f.version), 0)) from Faculty f")
+    CollectionVersion getCollectionVersion();
+
+    // Агрегаты по студентам факультета; left join оставляет факультеты без студентов (count = 0)
+    @Query("select new ru.hogwarts.school.dto.FacultyStats(f.id, f.name, f.color, count(s), avg(s.age)) " +
+            "from Faculty f left join f.students s " +
+            "group by f.id, f.name, f.color order by f.id")
+    List<FacultyStats> getFacultyStats();
+
+    @Query("select new ru.hogwarts.school.dto.ColorStats(f.color, count(distinct f.id), count(s), avg(s.age)) " +
+            "from Faculty f left join f.students s " +
+            "group by f.color order by f.color")
+    List<ColorStats> getColorStats();
+
+    // Поиск с опечатками и по префиксу на pg_trgm (GIN-индексы по upper(name) и upper(color))
+    @Query(value = "select f.id as id, " +
+            "greatest(word_similarity(upper(:query), upper(f.name)), word_similarity(upper(:query), upper(f.color))) " +
+            "+ case when upper(f.name) like upper(:prefix) escape '!' " +
+            "or upper(f.color) like upper(:prefix) escape '!' then 1 else 0 end as score " +
+            "from faculties f " +
+            "where upper(:query) <% upper(f.name) or upper(:query) <% upper(f.color) " +
+            "or upper(f.name) like upper(:prefix) escape '!' or upper(f.color) like upper(:prefix) escape '!' " +
+            "order by score desc, f.id limit :limit", nativeQuery = true)
+    List<ScoredId> searchByNameOrColorTrigram(@Param("query") String query,
+                                              @Param("prefix") String prefix,
+                                              @Param("limit") int limit);
+
+    // Серверный курсор: строки читаются из БД порциями по fetchSize
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select f from Faculty f order by f.id")
+    Stream<Faculty> streamAll();
+}
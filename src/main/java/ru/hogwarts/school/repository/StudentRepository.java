@@ -1,13 +1,116 @@
 package ru.hogwarts.school.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.AgeBucket;
+import ru.hogwarts.school.dto.CollectionVersion;
+import ru.hogwarts.school.dto.FacultyStudentCount;
+import ru.hogwarts.school.dto.ScoredId;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.dto.StudentView;
 import ru.hogwarts.school.model.Student;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface StudentRepository extends JpaRepository<Student, Long> {
-    List<Student> findByAge(int age);
+    // Чтение без сущностей: строки сразу превращаются в StudentView, Hibernate не хранит
+    // их в persistence context и не делает снимков для dirty checking
+    String STUDENT_VIEW = "select new ru.hogwarts.school.dto.StudentView(s.id, s.name, s.age, s.version, s.faculty.id) " +
+            "from Student s ";
+    String NAME_CONTAINS = "upper(s.name) like upper(concat('%', :#{escape(#name)}, '%')) escape :#{escapeCharacter()} ";
 
-    List<Student> findByAgeBetween(int minAge, int maxAge);
+    // Путь faculty_Id, а не FacultyId: из-за Student.getFacultyId() Spring Data искал бы
+    // свойство facultyId, которого нет в модели JPA
+    long countByFaculty_Id(Long facultyId);
 
-    List<Student> findByNameContainingIgnoreCase(String name);
+    // Keyset-пагинация (методы ...After): следующая страница начинается после последнего отданного id
+    @Query(STUDENT_VIEW + "order by s.id")
+    List<StudentView> findAllViews();
+
+    @Query(STUDENT_VIEW + "where s.id > :afterId order by s.id")
+    List<StudentView> findViewsAfter(@Param("afterId") long afterId, Limit limit);
+
+    @Query(STUDENT_VIEW + "where s.age = :age order by s.id")
+    List<StudentView> findViewsByAge(@Param("age") int age);
+
+    @Query(STUDENT_VIEW + "where s.age = :age and s.id > :afterId order by s.id")
+    List<StudentView> findViewsByAgeAfter(@Param("age") int age, @Param("afterId") long afterId, Limit limit);
+
+    @Query(STUDENT_VIEW + "where s.age between :minAge and :maxAge order by s.id")
+    List<StudentView> findViewsByAgeBetween(@Param("minAge") int minAge, @Param("maxAge") int maxAge);
+
+    @Query(STUDENT_VIEW + "where s.age between :minAge and :maxAge and s.id > :afterId order by s.id")
+    List<StudentView> findViewsByAgeBetweenAfter(@Param("minAge") int minAge,
+                                                 @Param("maxAge") int maxAge,
+                                                 @Param("afterId") long afterId,
+                                                 Limit limit);
+
+    @Query(STUDENT_VIEW + "where " + NAME_CONTAINS + "order by s.id")
+    List<StudentView> findViewsByNameContaining(@Param("name") String name);
+
+    @Query(STUDENT_VIEW + "where " + NAME_CONTAINS + "and s.id > :afterId order by s.id")
+    List<StudentView> findViewsByNameContainingAfter(@Param("name") String name,
+                                                     @Param("afterId") long afterId,
+                                                     Limit limit);
+
+    // Студенты факультета читаются одним запросом, без загрузки коллекции Faculty.students
+    @Query(STUDENT_VIEW + "where s.faculty.id = :facultyId order by s.id")
+    List<StudentView> findViewsByFacultyId(@Param("facultyId") Long facultyId);
+
+    @Query(STUDENT_VIEW + "where s.faculty.id = :facultyId and s.id > :afterId order by s.id")
+    List<StudentView> findViewsByFacultyIdAfter(@Param("facultyId") Long facultyId,
+                                                @Param("afterId") long afterId,
+                                                Limit limit);
+
+    @Query(STUDENT_VIEW + "where s.faculty is null and s.id > :afterId order by s.id")
+    List<StudentView> findViewsWithoutFacultyAfter(@Param("afterId") long afterId, Limit limit);
+
+    // Агрегаты считаются в БД одним запросом; min/max/группировка по возрасту идут по индексу idx_students_age
+    @Query("select new ru.hogwarts.school.dto.StudentStats(count(s), avg(s.age), min(s.age), max(s.age)) " +
+            "from Student s")
+    StudentStats getStats();
+
+    @Query("select new ru.hogwarts.school.dto.AgeBucket(s.age, count(s)) from Student s group by s.age order by s.age")
+    List<AgeBucket> getAgeHistogram();
+
+    // Версии для ETag: проверка If-None-Match/If-Match без загрузки сущности
+    @Query("select coalesce(s.version, 0) from Student s where s.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select new ru.hogwarts.school.dto.CollectionVersion(count(s), coalesce(max(s.id), 0), " +
+            "coalesce(sum(s.version), 0)) from Student s")
+    CollectionVersion getCollectionVersion();
+
+    // Исходные значения и сверка счётчиков FacultyEnrollmentCounter. Не read-only, чтобы запрос шёл
+    // на primary: по отстающей реплике сверка «исправила» бы счётчики на устаревшие значения
+    @Transactional
+    @Query("select new ru.hogwarts.school.dto.FacultyStudentCount(s.faculty.id, count(s)) from Student s " +
+            "where s.faculty is not null group by s.faculty.id")
+    List<FacultyStudentCount> countByFaculty();
+
+    // Поиск с опечатками и по префиксу на pg_trgm (GIN-индекс по upper(name)), см. PostgresSearchService
+    @Query(value = "select s.id as id, " +
+            "word_similarity(upper(:query), upper(s.name)) " +
+            "+ case when upper(s.name) like upper(:prefix) escape '!' then 1 else 0 end as score " +
+            "from students s " +
+            "where upper(:query) <% upper(s.name) or upper(s.name) like upper(:prefix) escape '!' " +
+            "order by score desc, s.id limit :limit", nativeQuery = true)
+    List<ScoredId> searchByNameTrigram(@Param("query") String query,
+                                       @Param("prefix") String prefix,
+                                       @Param("limit") int limit);
+
+    // Серверный курсор: строки читаются из БД порциями по fetchSize
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select s from Student s order by s.id")
+    Stream<Student> streamAll();
 }
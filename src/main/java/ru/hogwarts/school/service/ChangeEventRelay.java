@@ -0,0 +1,128 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.model.ChangeEvent;
+import ru.hogwarts.school.repository.ChangeEventRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Публикует записи outbox пакетами: присваивает им позиции в ленте, передаёт в ChangeEventSink
+ * и будит ожидающих в ChangeFeed. Позиции выдаются по порядку публикации, поэтому запись,
+ * закоммиченная позже записи с большим id, не будет пропущена клиентом с курсором.
+ * Рассчитан на один экземпляр приложения; второй ретранслятор упрётся в уникальность feed_position.
+ */
+@Component
+public class ChangeEventRelay {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeEventRelay.class);
+
+    private final ChangeEventRepository changeEventRepository;
+    private final ChangeEventSink sink;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter publishedEvents;
+
+    public ChangeEventRelay(ChangeEventRepository changeEventRepository,
+                            ChangeEventSink sink,
+                            ChangeFeed changeFeed,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${school.outbox.relay.batch-size:500}") int batchSize,
+                            @Value("${school.outbox.retention:P7D}") Duration retention) {
+        this.changeEventRepository = changeEventRepository;
+        this.sink = sink;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.publishedEvents = Counter.builder("school.outbox.published")
+                .description("Change events published by the outbox relay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Публикует всё, что накопилось в outbox.
+     *
+     * @return число опубликованных записей
+     */
+    @Scheduled(fixedDelayString = "${school.outbox.relay-interval:PT1S}")
+    public synchronized int relay() {
+        int total = 0;
+        try {
+            int published;
+            do {
+                published = publishBatch();
+                total += published;
+            } while (published == batchSize);
+        } catch (RuntimeException e) {
+            logger.warn("Change event relay failed, unpublished events will be retried", e);
+        }
+        return total;
+    }
+
+    private int publishBatch() {
+        List<ChangeEventView> published = transactionTemplate.execute(status -> {
+            List<ChangeEvent> batch = changeEventRepository.findUnpublished(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                return List.of();
+            }
+            long position = changeEventRepository.findLastPosition();
+            List<ChangeEventView> views = new ArrayList<>(batch.size());
+            for (ChangeEvent event : batch) {
+                event.setPosition(++position);
+                views.add(ChangeEventView.of(event));
+            }
+            try {
+                sink.publish(views);
+            } catch (Exception e) {
+                throw new IllegalStateException("Change event sink failed", e);
+            }
+            return views;
+        });
+        if (published == null || published.isEmpty()) {
+            return 0;
+        }
+        publishedEvents.increment(published.size());
+        changeFeed.published(published.get(published.size() - 1).position());
+        return published.size();
+    }
+
+    // Опубликованные записи хранятся school.outbox.retention; клиент, отставший сильнее, получает 410 (ChangeFeed)
+    @Scheduled(fixedDelayString = "${school.outbox.cleanup-interval:PT1H}")
+    public int purge() {
+        return purge(Instant.now().minus(retention));
+    }
+
+    /**
+     * Удаляет опубликованные записи, созданные до {@code before}, вместе со всеми записями с меньшей позицией.
+     * Последняя опубликованная запись остаётся всегда: по ней продолжается нумерация позиций,
+     * иначе после простоя дольше retention лента начала бы заново с 1 и клиенты с курсором пропустили бы изменения.
+     *
+     * @return число удалённых записей
+     */
+    public int purge(Instant before) {
+        Integer deleted = transactionTemplate.execute(status -> {
+            Long cutoff = changeEventRepository.findLastPositionCreatedBefore(before);
+            if (cutoff == null) {
+                return 0;
+            }
+            long upTo = Math.min(cutoff, changeEventRepository.findLastPosition() - 1);
+            return upTo > 0 ? changeEventRepository.deletePublishedUpTo(upTo) : 0;
+        });
+        return deleted != null ? deleted : 0;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.dto.ChangeEventView;
+
+import java.util.List;
+
+/**
+ * Получатель опубликованных изменений ({@code school.outbox.sink}). Вызывается внутри
+ * транзакции ретранслятора: исключение откатывает публикацию пакета, и он будет
+ * отправлен повторно (доставка «как минимум один раз»).
+ */
+public interface ChangeEventSink {
+    void publish(List<ChangeEventView> events) throws Exception;
+}
@@ -0,0 +1,74 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.repository.ChangeEventRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Лента опубликованных изменений для {@code GET /changes}: чтение после курсора
+ * и ожидание следующей публикации (long-poll, SSE) без опроса БД.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ChangeFeed {
+    private final ChangeEventRepository changeEventRepository;
+    private final Set<CompletableFuture<Long>> waiters = ConcurrentHashMap.newKeySet();
+    private volatile long lastPosition;
+
+    public ChangeFeed(ChangeEventRepository changeEventRepository, MeterRegistry meterRegistry) {
+        this.changeEventRepository = changeEventRepository;
+        Gauge.builder("school.changes.waiters", waiters, Set::size)
+                .description("Clients waiting for the next published change")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Записи после {@code since} по порядку позиций.
+     *
+     * @throws ChangesPurgedException если часть записей после {@code since} уже удалена ({@link ChangeEventRelay#purge})
+     */
+    public List<ChangeEventView> read(long since, int limit) {
+        List<ChangeEventView> changes = changeEventRepository.findPublishedAfter(since, Limit.of(limit));
+        // Проверка после чтения: очистка удаляет только начало ленты, поэтому если начало
+        // всё ещё не дальше since + 1, прочитанная страница была полной
+        Long first = changeEventRepository.findFirstPosition();
+        if (first != null && first - 1 > since) {
+            throw new ChangesPurgedException(since, first, changeEventRepository.findLastPosition());
+        }
+        return changes;
+    }
+
+    /**
+     * Завершается позицией последней опубликованной записи, как только она станет больше {@code since}.
+     * Ожидание, которое больше не нужно, следует отменить ({@code cancel}).
+     */
+    public CompletableFuture<Long> awaitAfter(long since) {
+        CompletableFuture<Long> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        waiter.whenComplete((position, error) -> waiters.remove(waiter));
+        // Публикация между чтением ленты и регистрацией ожидания не теряется:
+        // published() сначала сдвигает lastPosition, потом будит ожидающих
+        long last = lastPosition;
+        if (last > since) {
+            waiter.complete(last);
+        }
+        return waiter;
+    }
+
+    // Вызывается ретранслятором после коммита пакета
+    void published(long position) {
+        lastPosition = position;
+        for (CompletableFuture<Long> waiter : waiters) {
+            waiter.complete(position);
+        }
+    }
+}
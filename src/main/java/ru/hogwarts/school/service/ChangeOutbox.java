@@ -0,0 +1,25 @@
+package ru.hogwarts.school.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.model.ChangeEvent;
+
+/**
+ * Пишет записи outbox в текущую транзакцию: запись об изменении фиксируется
+ * или откатывается вместе с самим изменением. Публикует их ChangeEventRelay.
+ */
+@Component
+public class ChangeOutbox {
+    private final EntityManager entityManager;
+
+    public ChangeOutbox(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEvent.EntityType entityType, Long entityId, ChangeEvent.Operation operation) {
+        entityManager.persist(new ChangeEvent(entityType, entityId, operation));
+    }
+}
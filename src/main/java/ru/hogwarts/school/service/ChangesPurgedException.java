@@ -0,0 +1,32 @@
+package ru.hogwarts.school.service;
+
+/**
+ * Курсор клиента старше начала ленты: записи после него уже удалены по сроку хранения.
+ * Клиенту нужно заново загрузить студентов и факультеты и продолжить с {@code lastPosition},
+ * полученной до этой загрузки.
+ */
+public class ChangesPurgedException extends RuntimeException {
+    private final long since;
+    private final long firstPosition;
+    private final long lastPosition;
+
+    public ChangesPurgedException(long since, long firstPosition, long lastPosition) {
+        super("Changes after position " + since + " are no longer retained, the feed starts at " + firstPosition,
+                null, false, false);
+        this.since = since;
+        this.firstPosition = firstPosition;
+        this.lastPosition = lastPosition;
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public long getFirstPosition() {
+        return firstPosition;
+    }
+
+    public long getLastPosition() {
+        return lastPosition;
+    }
+}
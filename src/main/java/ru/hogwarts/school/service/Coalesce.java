@@ -0,0 +1,16 @@
+package ru.hogwarts.school.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Одновременные вызовы метода с равными аргументами выполняются один раз, остальные
+ * вызывающие ждут и получают тот же результат или то же исключение, см. {@link RequestCoalescingAspect}.
+ * Результат общий для всех ждавших, поэтому вызывающие не должны его изменять.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@interface Coalesce {
+}
@@ -0,0 +1,23 @@
+package ru.hogwarts.school.service;
+
+import jakarta.validation.ConstraintViolation;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+/**
+ * Текст ошибок валидации для построчных результатов: {@code "age: must be greater than 0; name: ..."}.
+ */
+final class ConstraintViolations {
+
+    private ConstraintViolations() {
+    }
+
+    static String describe(Collection<? extends ConstraintViolation<?>> violations) {
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+}
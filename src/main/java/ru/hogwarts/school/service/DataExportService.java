@@ -0,0 +1,322 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.config.ExportPool;
+import ru.hogwarts.school.dto.ExportResult;
+import ru.hogwarts.school.dto.FacultyView;
+import ru.hogwarts.school.dto.StudentView;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Выгрузка таблиц students и faculties в CSV или NDJSON, а также построчная отдача
+ * StudentView и FacultyView для NDJSON-ответов {@code GET /student} и {@code GET /faculty}.
+ * <p>
+ * Строки читаются через JdbcTemplate однонаправленным курсором порциями по fetchSize
+ * (на PostgreSQL курсор работает только внутри транзакции) и сразу пишутся в выходной поток:
+ * ни сущностей, ни списка строк в памяти нет. Соединение берётся из отдельного пула
+ * {@link ExportPool}, а не из основного: выгрузка держит его до конца ответа.
+ * Колонки выбираются только из белого списка таблицы, поэтому в SQL не попадает ввод клиента.
+ */
+@Service
+@Timed(value = "school.service", description = "Service method latency")
+public class DataExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    public enum Table {
+        STUDENTS("students", List.of("id", "name", "age", "faculty_id", "version")),
+        FACULTIES("faculties", List.of("id", "name", "color", "version"));
+
+        private final String tableName;
+        private final List<String> columns;
+
+        Table(String tableName, List<String> columns) {
+            this.tableName = tableName;
+            this.columns = columns;
+        }
+
+        public String tableName() {
+            return tableName;
+        }
+
+        public List<String> columns() {
+            return columns;
+        }
+    }
+
+    public enum Format {
+        CSV("csv"),
+        NDJSON("ndjson");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final ExportPool exportPool;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final int fetchSize;
+    private final Path exportDirectory;
+    private final MeterRegistry meterRegistry;
+
+    public DataExportService(ExportPool exportPool,
+                             MeterRegistry meterRegistry,
+                             @Value("${school.export.fetch-size:1000}") int fetchSize,
+                             @Value("${school.export.dir:export}") Path exportDirectory) {
+        this.exportPool = exportPool;
+        this.meterRegistry = meterRegistry;
+        this.fetchSize = fetchSize;
+        this.exportDirectory = exportDirectory;
+    }
+
+    /**
+     * Проверяет выбранные колонки по белому списку таблицы.
+     *
+     * @param requested колонки в нужном порядке; пустой список — все колонки
+     * @throws IllegalArgumentException если колонки нет в таблице
+     */
+    public List<String> resolveColumns(Table table, List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return table.columns();
+        }
+        Set<String> columns = new LinkedHashSet<>();
+        for (String column : requested) {
+            String name = column.trim().toLowerCase(Locale.ROOT);
+            if (!table.columns().contains(name)) {
+                throw new IllegalArgumentException("Unknown column '" + column.trim() + "', allowed: "
+                        + String.join(",", table.columns()));
+            }
+            columns.add(name);
+        }
+        return List.copyOf(columns);
+    }
+
+    /**
+     * Пишет таблицу в поток; поток не закрывается.
+     *
+     * @return число выгруженных строк
+     */
+    public long export(Table table, Format format, List<String> columns, boolean gzip, OutputStream out)
+            throws IOException {
+        List<String> selected = resolveColumns(table, columns);
+        // Поток вызывающего не закрывается, но буферы и gzip-трейлер в него дописываются
+        OutputStream target = new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+        if (gzip) {
+            target = new GZIPOutputStream(target, BUFFER_SIZE);
+        }
+        try (OutputStream buffered = new BufferedOutputStream(target, BUFFER_SIZE);
+             RowWriter writer = format == Format.CSV ? new CsvRowWriter(buffered, selected)
+                     : new NdjsonRowWriter(jsonFactory.createGenerator(buffered, JsonEncoding.UTF8), selected)) {
+            long rows = query(table, selected, writer);
+            Counter.builder("school.export.rows")
+                    .description("Rows written by table exports")
+                    .tag("table", table.tableName())
+                    .register(meterRegistry)
+                    .increment(rows);
+            return rows;
+        }
+    }
+
+    /**
+     * Выгружает таблицу в новый файл в каталоге school.export.dir; имя файла задаёт сервер.
+     */
+    public ExportResult exportToFile(Table table, Format format, List<String> columns, boolean gzip)
+            throws IOException {
+        Files.createDirectories(exportDirectory);
+        String fileName = table.tableName() + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "."
+                + format.extension() + (gzip ? ".gz" : "");
+        Path file = exportDirectory.resolve(fileName);
+        long started = System.nanoTime();
+        long rows;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            rows = export(table, format, columns, gzip, out);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new ExportResult(fileName, table.tableName(), format.name(), gzip, rows, Files.size(file),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Передаёт всех студентов по одному в порядке id, не накапливая их в памяти.
+     * Исключение из action прерывает чтение и пробрасывается вызывающему.
+     */
+    public void forEachStudent(Consumer<StudentView> action) {
+        query(Table.STUDENTS, Table.STUDENTS.columns(), row -> action.accept(new StudentView(
+                row.getLong("id"), row.getString("name"), row.getInt("age"),
+                row.getObject("version", Long.class), row.getObject("faculty_id", Long.class))));
+    }
+
+    /**
+     * Передаёт все факультеты по одному в порядке id, не накапливая их в памяти.
+     */
+    public void forEachFaculty(Consumer<FacultyView> action) {
+        query(Table.FACULTIES, Table.FACULTIES.columns(), row -> action.accept(new FacultyView(
+                row.getLong("id"), row.getString("name"), row.getString("color"),
+                row.getObject("version", Long.class))));
+    }
+
+    private long query(Table table, List<String> columns, RowWriter writer) throws IOException {
+        long[] rows = {0};
+        try {
+            query(table, columns, resultSet -> {
+                try {
+                    writer.write(resultSet);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows[0];
+    }
+
+    private void query(Table table, List<String> columns, RowCallbackHandler handler) {
+        String sql = "select " + String.join(", ", columns) + " from " + table.tableName() + " order by id";
+        exportPool.readOnlyTransaction().executeWithoutResult(status -> exportPool.jdbcTemplate().query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, handler));
+    }
+
+    private interface RowWriter extends AutoCloseable {
+        void write(ResultSet row) throws IOException, SQLException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    // RFC 4180: поле в кавычках, если в нём есть запятая, кавычка или перевод строки
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+        private final int columnCount;
+
+        CsvRowWriter(OutputStream out, List<String> columns) throws IOException {
+            // BufferedWriter копирует строки в свой буфер; OutputStreamWriter на каждую строку выделял бы char[]
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.columnCount = columns.size();
+            this.out.write(String.join(",", columns));
+            this.out.write('\n');
+        }
+
+        @Override
+        public void write(ResultSet row) throws IOException, SQLException {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    out.write(',');
+                }
+                String value = row.getString(i);
+                if (value != null) {
+                    writeField(value);
+                }
+            }
+            out.write('\n');
+        }
+
+        private void writeField(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final List<String> columns;
+
+        NdjsonRowWriter(JsonGenerator generator, List<String> columns) {
+            // Без разделителя корневых значений: между объектами только перевод строки
+            this.generator = generator.setRootValueSeparator(null);
+            this.columns = new ArrayList<>(columns);
+        }
+
+        @Override
+        public void write(ResultSet row) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.size(); i++) {
+                generator.writeFieldName(columns.get(i));
+                Object value = row.getObject(i + 1);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.longValue());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.cache.annotation.CacheEvict;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Сбрасывает закэшированную статистику после метода, меняющего студентов или факультеты.
+ * Кэш транзакционный (см. {@code CacheConfig}), поэтому сброс происходит после коммита.
+ * Сам сброс не защищает от чтения, начатого до коммита: оно может положить в кэш данные
+ * до изменения уже после сброса. Поэтому ключ статистики — поколение данных ({@link WriteGeneration}),
+ * которое тоже растёт после коммита: такой результат остаётся под старым ключом и больше не читается.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@CacheEvict(cacheNames = {
+        StatisticsCaches.STUDENT_STATS,
+        StatisticsCaches.AGE_HISTOGRAM,
+        StatisticsCaches.FACULTY_STATS,
+        StatisticsCaches.COLOR_STATS
+}, allEntries = true)
+@interface EvictStatistics {
+}
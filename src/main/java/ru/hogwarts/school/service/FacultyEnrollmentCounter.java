@@ -0,0 +1,194 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.dto.FacultyStudentCount;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Число студентов на каждом факультете, поддерживаемое в памяти.
+ * <p>
+ * Счётчики заполняются из БД при старте, до запуска веб-сервера, затем меняются по событиям Hibernate
+ * (вставка, удаление, смена факультета у Student) после коммита транзакции
+ * и периодически сверяются с БД. Пока первая сверка не прошла, {@link #isSeeded()} возвращает false.
+ */
+@Component
+public class FacultyEnrollmentCounter implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(FacultyEnrollmentCounter.class);
+    // Веб-сервер стартует в фазе SMART_LIFECYCLE_PHASE - 1024; счётчики заполняются раньше
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+
+    private final StudentRepository studentRepository;
+    private final Map<Long, LongAdder> counts = new ConcurrentHashMap<>();
+    // Транзакции, изменившие счётчики, но ещё не применившие изменения, и число применённых изменений:
+    // сверка не перезаписывает счётчики, если за время запроса к БД что-то менялось
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final Counter corrections;
+    private volatile boolean seeded;
+    private volatile boolean running;
+
+    public FacultyEnrollmentCounter(StudentRepository studentRepository,
+                                    EntityManagerFactory entityManagerFactory,
+                                    MeterRegistry meterRegistry) {
+        this.studentRepository = studentRepository;
+        this.corrections = Counter.builder("school.enrollment.reconcile.corrections")
+                .description("Faculty counters fixed by reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("school.enrollment.faculties", counts, Map::size)
+                .description("Faculties with an in-memory enrollment counter")
+                .register(meterRegistry);
+
+        StudentEnrollmentListener listener = new StudentEnrollmentListener(this);
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+    }
+
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    public long get(long facultyId) {
+        LongAdder count = counts.get(facultyId);
+        return count != null ? count.sum() : 0;
+    }
+
+    // HTTP-запросов ещё нет, но писать в БД могут другие компоненты, поэтому проверка та же, что при сверке;
+    // если она не прошла, счётчики заполнит плановая сверка, а до тех пор FacultyService считает по БД
+    @Override
+    public void start() {
+        if (reconcile() < 0) {
+            logger.info("Enrollment counters not seeded at startup: concurrent changes, waiting for reconciliation");
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Сверяет счётчики с БД и исправляет расхождения.
+     *
+     * @return число исправленных факультетов или -1, если сверку пришлось пропустить
+     * из-за параллельных изменений
+     */
+    @Scheduled(fixedDelayString = "${school.enrollment.reconcile-interval:PT5M}",
+            initialDelayString = "${school.enrollment.reconcile-interval:PT5M}")
+    public int reconcile() {
+        long appliedBefore = applied.get();
+        if (inFlight.get() > 0) {
+            return -1;
+        }
+        Map<Long, Long> actual = new HashMap<>();
+        for (FacultyStudentCount row : studentRepository.countByFaculty()) {
+            actual.put(row.facultyId(), row.count());
+        }
+        if (inFlight.get() > 0 || applied.get() != appliedBefore) {
+            logger.debug("Enrollment reconciliation skipped: concurrent changes");
+            return -1;
+        }
+
+        int fixed = 0;
+        for (Map.Entry<Long, Long> entry : actual.entrySet()) {
+            LongAdder count = counts.computeIfAbsent(entry.getKey(), id -> new LongAdder());
+            long drift = entry.getValue() - count.sum();
+            if (drift != 0) {
+                count.add(drift);
+                fixed++;
+            }
+        }
+        for (Map.Entry<Long, LongAdder> entry : counts.entrySet()) {
+            if (!actual.containsKey(entry.getKey()) && entry.getValue().sum() != 0) {
+                entry.getValue().reset();
+                fixed++;
+            }
+        }
+        // Изменение, начатое уже после проверки выше, может потеряться; его исправит следующая сверка
+        counts.keySet().retainAll(actual.keySet());
+
+        if (fixed > 0 && seeded) {
+            logger.warn("Enrollment counters drifted for {} faculties, fixed from database", fixed);
+            corrections.increment(fixed);
+        }
+        seeded = true;
+        return fixed;
+    }
+
+    // Изменения копятся в рамках транзакции и применяются только после коммита;
+    // вне транзакции Spring применяются сразу
+    void record(Long facultyId, long delta) {
+        if (facultyId == null || delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(Map.of(facultyId, delta));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<Long, Long> pending = (Map<Long, Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, Long> deltas = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            inFlight.incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(FacultyEnrollmentCounter.this);
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            apply(deltas);
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                }
+            });
+            pending = deltas;
+        }
+        pending.merge(facultyId, delta, Long::sum);
+    }
+
+    private void apply(Map<Long, Long> deltas) {
+        deltas.forEach((facultyId, delta) -> {
+            if (delta != 0) {
+                counts.computeIfAbsent(facultyId, id -> new LongAdder()).add(delta);
+            }
+        });
+        applied.incrementAndGet();
+    }
+}
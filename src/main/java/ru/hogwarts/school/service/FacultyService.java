@@ -1,89 +1,324 @@
 package ru.hogwarts.school.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.CollectionVersion;
+import ru.hogwarts.school.dto.ColorStats;
+import ru.hogwarts.school.dto.FacultyStats;
+import ru.hogwarts.school.dto.FacultyView;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.ChangeEvent;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@Transactional
+@Timed(value = "school.service", description = "Service method latency")
+// Чтение по умолчанию в read-only транзакции: Hibernate не делает снимков сущностей
+// и не сбрасывает persistence context; изменяющие методы помечены @Transactional явно
+@Transactional(readOnly = true)
 public class FacultyService {
     private final FacultyRepository facultyRepository;
+    private final StudentRepository studentRepository;
+    private final SearchService searchService;
+    private final FacultyEnrollmentCounter enrollmentCounter;
+    private final ChangeOutbox changeOutbox;
+    private final EntityManager entityManager;
+    private final int batchSize;
 
-
-    public FacultyService(FacultyRepository facultyRepository) {
+    public FacultyService(FacultyRepository facultyRepository,
+                          StudentRepository studentRepository,
+                          SearchService searchService,
+                          FacultyEnrollmentCounter enrollmentCounter,
+                          ChangeOutbox changeOutbox,
+                          EntityManager entityManager,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.facultyRepository = facultyRepository;
+        this.studentRepository = studentRepository;
+        this.searchService = searchService;
+        this.enrollmentCounter = enrollmentCounter;
+        this.changeOutbox = changeOutbox;
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
     }
 
+    @Transactional
+    @EvictStatistics
     public Faculty createFaculty(Faculty faculty) {
         if (faculty.getId() != null) {
             throw new IllegalArgumentException("Cannot create faculty with existing ID");
         }
-        return facultyRepository.save(faculty);
+        Faculty created = facultyRepository.save(faculty);
+        changeOutbox.record(ChangeEvent.EntityType.FACULTY, created.getId(), ChangeEvent.Operation.CREATED);
+        return created;
     }
 
+    // Горячие чтения при публикации расписания: одинаковые одновременные запросы идут в БД один раз
+    @Coalesce
     public Faculty getFacultyById(Long id) {
         return facultyRepository.findById(id).orElse(null);
     }
 
+    // Если факультет уже в кэше второго уровня, версия берётся оттуда без SQL,
+    // иначе — одним запросом без загрузки сущности
+    public Long getFacultyVersion(Long id) {
+        if (entityManager.getEntityManagerFactory().getCache().contains(Faculty.class, id)) {
+            Faculty faculty = getFacultyById(id);
+            return faculty != null ? Objects.requireNonNullElse(faculty.getVersion(), 0L) : null;
+        }
+        return facultyRepository.findVersionById(id).orElse(null);
+    }
+
+    public CollectionVersion getFacultyCollectionVersion() {
+        return facultyRepository.getCollectionVersion();
+    }
+
+    @RetryOnConflict
+    @Transactional
+    @EvictStatistics
     public Faculty updateFaculty(Long id, Faculty facultyDetails) {
+        return updateFaculty(id, facultyDetails, null);
+    }
+
+    // expectedVersion — версия из If-Match; проверяется в той же транзакции, что и обновление.
+    // Без повтора: после конфликта версия уже не совпадёт с ожидаемой
+    @Transactional
+    @EvictStatistics
+    public Faculty updateFaculty(Long id, Faculty facultyDetails, Long expectedVersion) {
         Faculty faculty = getFacultyById(id);
         if (faculty == null) {
             return null;
         }
+        if (expectedVersion != null && !expectedVersion.equals(Objects.requireNonNullElse(faculty.getVersion(), 0L))) {
+            throw new ObjectOptimisticLockingFailureException(Faculty.class, id);
+        }
+
+        applyDetails(faculty, facultyDetails);
+
+        changeOutbox.record(ChangeEvent.EntityType.FACULTY, id, ChangeEvent.Operation.UPDATED);
+        return facultyRepository.save(faculty);
+    }
 
+    private void applyDetails(Faculty faculty, Faculty facultyDetails) {
         if (facultyDetails.getName() != null) {
             faculty.setName(facultyDetails.getName());
         }
         if (facultyDetails.getColor() != null) {
             faculty.setColor(facultyDetails.getColor());
         }
-
-        return facultyRepository.save(faculty);
     }
 
+    @Transactional
+    @EvictStatistics
     public Faculty deleteFaculty(Long id) {
         Faculty faculty = getFacultyById(id);
         if (faculty != null) {
+            recordDeletion(faculty);
             facultyRepository.deleteById(id);
         }
         return faculty;
     }
 
-    public List<Faculty> getAllFaculties() {
-        return facultyRepository.findAll();
+    public List<FacultyView> getAllFaculties() {
+        return facultyRepository.findAllViews();
+    }
+
+    public List<FacultyView> getFacultiesAfter(long afterId, int limit) {
+        return facultyRepository.findViewsAfter(afterId, Limit.of(limit));
     }
 
-    public List<Faculty> getFacultiesByColor(String color) {
-        return facultyRepository.findByColor(color);
+    public List<FacultyView> getFacultiesByColor(String color) {
+        return facultyRepository.findViewsByColor(color);
+    }
+
+    public List<FacultyView> getFacultiesByColorAfter(String color, long afterId, int limit) {
+        return facultyRepository.findViewsByColorAfter(color, afterId, Limit.of(limit));
     }
 
     public Faculty getFacultyByName(String name) {
         return facultyRepository.findByName(name);
     }
 
-    public List<Faculty> getFacultiesByNameOrColor(String searchString) {
-        return facultyRepository.findByNameContainingIgnoreCaseOrColorContainingIgnoreCase(
-                searchString, searchString);
+    public List<FacultyView> getFacultiesByNameOrColor(String searchString) {
+        return facultyRepository.findViewsByNameOrColorContaining(searchString);
     }
 
-    public List<Student> getFacultyStudents(Long facultyId) {
-        Faculty faculty = getFacultyById(facultyId);
-        if (faculty == null) {
-            return Collections.emptyList();
+    public List<FacultyView> getFacultiesByNameOrColorAfter(String searchString, long afterId, int limit) {
+        return facultyRepository.findViewsByNameOrColorContainingAfter(searchString, afterId, Limit.of(limit));
+    }
+
+    public List<SearchHit<Faculty>> searchFaculties(String query, int limit) {
+        return searchService.searchFaculties(query, limit);
+    }
+
+    @Coalesce
+    public List<StudentView> getFacultyStudents(Long facultyId) {
+        return studentRepository.findViewsByFacultyId(facultyId);
+    }
+
+    public List<StudentView> getFacultyStudentsAfter(Long facultyId, long afterId, int limit) {
+        return studentRepository.findViewsByFacultyIdAfter(facultyId, afterId, Limit.of(limit));
+    }
+
+    // Счётчик в памяти, пока он не заполнен при старте — запрос к БД
+    public long getFacultyStudentCount(Long facultyId) {
+        if (enrollmentCounter.isSeeded()) {
+            return enrollmentCounter.get(facultyId);
+        }
+        return studentRepository.countByFaculty_Id(facultyId);
+    }
+
+    // Статистика кэшируется до ближайшего изменения студентов или факультетов (@EvictStatistics)
+    @Cacheable(cacheNames = StatisticsCaches.FACULTY_STATS, key = StatisticsCaches.GENERATION_KEY)
+    public List<FacultyStats> getFacultyStats() {
+        return facultyRepository.getFacultyStats();
+    }
+
+    @Cacheable(cacheNames = StatisticsCaches.COLOR_STATS, key = StatisticsCaches.GENERATION_KEY)
+    public List<ColorStats> getColorStats() {
+        return facultyRepository.getColorStats();
+    }
+
+    // Пакетные операции: уникальность имён проверяется заранее, чтобы один дубликат
+    // не откатывал всю транзакцию; persistence context сбрасывается каждые batchSize записей
+    @Transactional
+    @EvictStatistics
+    public List<BatchItemResult> createFaculties(List<Faculty> faculties) {
+        Set<String> takenNames = findTakenNames(faculties).keySet();
+        Set<String> seenNames = new HashSet<>();
+        List<BatchItemResult> results = new ArrayList<>(faculties.size());
+        int pending = 0;
+        for (int i = 0; i < faculties.size(); i++) {
+            Faculty faculty = faculties.get(i);
+            if (faculty == null || faculty.getId() != null) {
+                results.add(BatchItemResult.invalid(i, faculty != null ? faculty.getId() : null,
+                        "Cannot create faculty with existing ID"));
+                continue;
+            }
+            if (faculty.getName() == null || faculty.getColor() == null) {
+                results.add(BatchItemResult.invalid(i, null, "Faculty name and color are required"));
+                continue;
+            }
+            if (takenNames.contains(faculty.getName()) || !seenNames.add(faculty.getName())) {
+                results.add(BatchItemResult.invalid(i, null, "Faculty name already exists"));
+                continue;
+            }
+            entityManager.persist(faculty);
+            changeOutbox.record(ChangeEvent.EntityType.FACULTY, faculty.getId(), ChangeEvent.Operation.CREATED);
+            results.add(BatchItemResult.of(i, faculty.getId(), BatchItemResult.Status.CREATED));
+            if (++pending == batchSize) {
+                flushAndClear();
+                pending = 0;
+            }
         }
-        return faculty.getStudents();
+        return results;
     }
 
-    public int getFacultyStudentCount(Long facultyId) {
-        Faculty faculty = getFacultyById(facultyId);
-        if (faculty == null || faculty.getStudents() == null) {
-            return 0;
+    @Transactional
+    @EvictStatistics
+    public List<BatchItemResult> updateFaculties(List<Faculty> faculties) {
+        Map<String, Long> takenNames = findTakenNames(faculties);
+        Set<String> seenNames = new HashSet<>();
+        List<BatchItemResult> results = new ArrayList<>(faculties.size());
+        for (int from = 0; from < faculties.size(); from += batchSize) {
+            List<Faculty> chunk = faculties.subList(from, Math.min(from + batchSize, faculties.size()));
+            Map<Long, Faculty> existing = findAllById(chunk.stream()
+                    .filter(faculty -> faculty != null && faculty.getId() != null)
+                    .map(Faculty::getId)
+                    .toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                Faculty details = chunk.get(i);
+                if (details == null || details.getId() == null) {
+                    results.add(BatchItemResult.invalid(from + i, null, "Faculty ID is required"));
+                    continue;
+                }
+                Faculty faculty = existing.get(details.getId());
+                if (faculty == null) {
+                    results.add(BatchItemResult.of(from + i, details.getId(), BatchItemResult.Status.NOT_FOUND));
+                    continue;
+                }
+                String name = details.getName();
+                if (name != null && (!Objects.equals(takenNames.getOrDefault(name, faculty.getId()), faculty.getId())
+                        || !seenNames.add(name))) {
+                    results.add(BatchItemResult.invalid(from + i, faculty.getId(), "Faculty name already exists"));
+                    continue;
+                }
+                applyDetails(faculty, details);
+                changeOutbox.record(ChangeEvent.EntityType.FACULTY, faculty.getId(), ChangeEvent.Operation.UPDATED);
+                results.add(BatchItemResult.of(from + i, faculty.getId(), BatchItemResult.Status.UPDATED));
+            }
+            flushAndClear();
         }
-        return faculty.getStudents().size();
+        return results;
+    }
+
+    @Transactional
+    @EvictStatistics
+    public List<BatchItemResult> deleteFaculties(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<Long, Faculty> existing = findAllById(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                Faculty faculty = id != null ? existing.remove(id) : null;
+                if (faculty != null) {
+                    recordDeletion(faculty);
+                    entityManager.remove(faculty);
+                    results.add(BatchItemResult.of(from + i, id, BatchItemResult.Status.DELETED));
+                } else {
+                    results.add(BatchItemResult.of(from + i, id, BatchItemResult.Status.NOT_FOUND));
+                }
+            }
+            flushAndClear();
+        }
+        return results;
+    }
+
+    // Студенты удаляются каскадом вместе с факультетом, их удаление тоже попадает в outbox
+    private void recordDeletion(Faculty faculty) {
+        for (Student student : faculty.getStudents()) {
+            changeOutbox.record(ChangeEvent.EntityType.STUDENT, student.getId(), ChangeEvent.Operation.DELETED);
+        }
+        changeOutbox.record(ChangeEvent.EntityType.FACULTY, faculty.getId(), ChangeEvent.Operation.DELETED);
+    }
+
+    private Map<String, Long> findTakenNames(List<Faculty> faculties) {
+        List<String> names = faculties.stream()
+                .filter(Objects::nonNull)
+                .map(Faculty::getName)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        return facultyRepository.findByNameIn(names).stream()
+                .collect(Collectors.toMap(Faculty::getName, Faculty::getId));
+    }
+
+    private Map<Long, Faculty> findAllById(List<Long> ids) {
+        return facultyRepository.findAllById(ids.stream().filter(Objects::nonNull).toList()).stream()
+                .collect(Collectors.toMap(Faculty::getId, Function.identity()));
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.ChangeEventView;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Дописывает изменения в NDJSON-файл {@code school.outbox.file.path}. Пакет сбрасывается
+ * на диск до коммита публикации, поэтому после сбоя записи могут повториться, но не пропасть.
+ */
+@Component
+@ConditionalOnProperty(name = "school.outbox.sink", havingValue = "file")
+public class FileChangeEventSink implements ChangeEventSink {
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileChangeEventSink(ObjectMapper objectMapper,
+                               @Value("${school.outbox.file.path:outbox/changes.ndjson}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path.toAbsolutePath();
+    }
+
+    @Override
+    public synchronized void publish(List<ChangeEventView> events) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(events.size() * 128);
+        for (ChangeEventView event : events) {
+            buffer.write(objectMapper.writeValueAsBytes(event));
+            buffer.write('\n');
+        }
+        Files.createDirectories(path.getParent());
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.dto.ImportError;
+import ru.hogwarts.school.dto.ImportJobStatus;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Состояние одного импорта. Строки читает поток чтения, пакеты пишут рабочие потоки;
+ * задание завершено, когда файл прочитан и записан последний отправленный пакет.
+ */
+class ImportJob {
+    private final String id = UUID.randomUUID().toString();
+    private final StudentImportService.Format format;
+    private final int maxErrors;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<ImportError> errors = new ArrayList<>();
+
+    private int pendingChunks;
+    private boolean readFinished;
+    private ImportJobStatus.State state = ImportJobStatus.State.RUNNING;
+    private Instant finishedAt;
+
+    ImportJob(StudentImportService.Format format, int maxErrors) {
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    String id() {
+        return id;
+    }
+
+    void rowRead() {
+        rowsRead.incrementAndGet();
+    }
+
+    void imported(int rows) {
+        imported.addAndGet(rows);
+    }
+
+    void reject(long line, String message) {
+        rejected.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportError(line, message));
+            }
+        }
+    }
+
+    synchronized void chunkSubmitted() {
+        pendingChunks++;
+    }
+
+    synchronized void chunkFinished() {
+        pendingChunks--;
+        completeIfDone();
+    }
+
+    synchronized void readFinished() {
+        readFinished = true;
+        completeIfDone();
+    }
+
+    // Файл не дочитан (ошибка формата или ввода-вывода); уже отправленные пакеты дописываются
+    synchronized void readFailed(long line, String failure) {
+        state = ImportJobStatus.State.FAILED;
+        reject(line, failure);
+        readFinished();
+    }
+
+    synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    synchronized Instant finishedAt() {
+        return finishedAt;
+    }
+
+    synchronized ImportJobStatus status() {
+        List<ImportError> errorsCopy;
+        synchronized (errors) {
+            errorsCopy = List.copyOf(errors);
+        }
+        return new ImportJobStatus(id, state, format.name(), rowsRead.get(), imported.get(), rejected.get(),
+                errorsCopy, startedAt.toString(), finishedAt != null ? finishedAt.toString() : null);
+    }
+
+    private void completeIfDone() {
+        if (readFinished && pendingChunks == 0 && finishedAt == null) {
+            finishedAt = Instant.now();
+            if (state == ImportJobStatus.State.RUNNING) {
+                state = ImportJobStatus.State.COMPLETED;
+            }
+        }
+    }
+}
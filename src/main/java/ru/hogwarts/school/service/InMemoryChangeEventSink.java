@@ -0,0 +1,38 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.hogwarts.school.dto.ChangeEventView;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Заглушка брокера: хранит последние {@code school.outbox.memory.capacity} опубликованных изменений.
+ */
+@Component
+@ConditionalOnProperty(name = "school.outbox.sink", havingValue = "memory", matchIfMissing = true)
+public class InMemoryChangeEventSink implements ChangeEventSink {
+    private final int capacity;
+    private final Deque<ChangeEventView> events = new ArrayDeque<>();
+
+    public InMemoryChangeEventSink(@Value("${school.outbox.memory.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<ChangeEventView> batch) {
+        for (ChangeEventView event : batch) {
+            if (events.size() == capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    public synchronized List<ChangeEventView> recent() {
+        return List.copyOf(events);
+    }
+}
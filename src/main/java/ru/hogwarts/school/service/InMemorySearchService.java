@@ -0,0 +1,75 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Поиск без pg_trgm для тестов и встроенной БД: те же правила ранжирования,
+ * что и в {@link PostgresSearchService}, но с перебором всех строк в памяти.
+ */
+@Service
+@ConditionalOnProperty(name = "school.search.engine", havingValue = "memory")
+@Transactional(readOnly = true)
+public class InMemorySearchService implements SearchService {
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+
+    public InMemorySearchService(StudentRepository studentRepository, FacultyRepository facultyRepository) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+    }
+
+    @Override
+    public List<SearchHit<Student>> searchStudents(String query, int limit) {
+        try (Stream<Student> students = studentRepository.streamAll()) {
+            return search(students, query, limit, student -> new String[]{student.getName()}, Student::getId);
+        }
+    }
+
+    @Override
+    public List<SearchHit<Faculty>> searchFaculties(String query, int limit) {
+        try (Stream<Faculty> faculties = facultyRepository.streamAll()) {
+            return search(faculties, query, limit,
+                    faculty -> new String[]{faculty.getName(), faculty.getColor()}, Faculty::getId);
+        }
+    }
+
+    private static <T> List<SearchHit<T>> search(Stream<T> items, String query, int limit,
+                                                 Function<T, String[]> fields, Function<T, Long> idOf) {
+        Set<String> queryTrigrams = Trigrams.of(query);
+        String prefix = query.toLowerCase(Locale.ROOT);
+        return items
+                .map(item -> new SearchHit<>(item, score(fields.apply(item), queryTrigrams, prefix)))
+                .filter(hit -> hit.score() >= Trigrams.WORD_SIMILARITY_THRESHOLD)
+                .sorted(Comparator.<SearchHit<T>>comparingDouble(SearchHit::score).reversed()
+                        .thenComparing(hit -> idOf.apply(hit.item())))
+                .limit(limit)
+                .toList();
+    }
+
+    private static double score(String[] fields, Set<String> queryTrigrams, String prefix) {
+        double similarity = 0;
+        boolean prefixMatch = false;
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            similarity = Math.max(similarity, Trigrams.wordSimilarity(queryTrigrams, field));
+            prefixMatch |= field.toLowerCase(Locale.ROOT).startsWith(prefix);
+        }
+        return similarity + (prefixMatch ? 1 : 0);
+    }
+}
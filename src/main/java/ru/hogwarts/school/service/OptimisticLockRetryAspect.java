@@ -0,0 +1,101 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Повтор методов с {@link RetryOnConflict} при OptimisticLockingFailureException.
+ * Аспект стоит снаружи транзакционного прокси, поэтому каждая попытка — отдельная транзакция;
+ * паузы между попытками растут экспоненциально со случайным разбросом (full jitter),
+ * чтобы конкурирующие запросы не повторялись синхронно. Если попытки кончились,
+ * исключение уходит в контроллер и превращается в 409.
+ * Это самый внешний из аспектов сервисов: {@link WriteGeneration} и {@link RequestCoalescingAspect}
+ * срабатывают внутри каждой попытки.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticLockRetryAspect {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetryAspect.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public OptimisticLockRetryAspect(MeterRegistry meterRegistry,
+                                     @Value("${school.conflict-retry.max-attempts:5}") int maxAttempts,
+                                     @Value("${school.conflict-retry.initial-backoff:5ms}") Duration initialBackoff,
+                                     @Value("${school.conflict-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+    }
+
+    @Around("@annotation(ru.hogwarts.school.service.RetryOnConflict)")
+    public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Внутри чужой транзакции повтор бессмысленен: её откат решает вызывающий код
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Object result = joinPoint.proceed();
+                if (attempt > 1) {
+                    conflicts(method, "recovered").increment();
+                }
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(method, "exhausted").increment();
+                    logger.debug("{} gave up after {} conflicting attempts", method, attempt);
+                    throw e;
+                }
+                conflicts(method, "retried").increment();
+                if (!pause(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private boolean pause(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter conflicts(String method, String outcome) {
+        return Counter.builder("school.optimistic_lock.conflicts")
+                .description("Optimistic lock conflicts on service methods by outcome")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.hogwarts.school.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.ScoredId;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск на pg_trgm: отбор и ранжирование выполняются в БД по GIN-индексам
+ * {@code idx_students_name_trgm}, {@code idx_faculties_name_trgm}, {@code idx_faculties_color_trgm}
+ * (миграция {@code db/migration/postgresql/V3__trigram_search.sql}).
+ */
+@Service
+@ConditionalOnProperty(name = "school.search.engine", havingValue = "postgres", matchIfMissing = true)
+@Transactional(readOnly = true)
+public class PostgresSearchService implements SearchService {
+    private final StudentRepository studentRepository;
+    private final FacultyRepository facultyRepository;
+
+    public PostgresSearchService(StudentRepository studentRepository, FacultyRepository facultyRepository) {
+        this.studentRepository = studentRepository;
+        this.facultyRepository = facultyRepository;
+    }
+
+    @Override
+    public List<SearchHit<Student>> searchStudents(String query, int limit) {
+        List<ScoredId> scored = studentRepository.searchByNameTrigram(query, prefixPattern(query), limit);
+        return load(scored, studentRepository, Student::getId);
+    }
+
+    @Override
+    public List<SearchHit<Faculty>> searchFaculties(String query, int limit) {
+        List<ScoredId> scored = facultyRepository.searchByNameOrColorTrigram(query, prefixPattern(query), limit);
+        return load(scored, facultyRepository, Faculty::getId);
+    }
+
+    // Сущности догружаются одним запросом по id и возвращаются в порядке релевантности
+    private static <T> List<SearchHit<T>> load(List<ScoredId> scored, JpaRepository<T, Long> repository,
+                                               Function<T, Long> idOf) {
+        Map<Long, T> items = repository.findAllById(scored.stream().map(ScoredId::getId).toList()).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        return scored.stream()
+                .filter(hit -> items.containsKey(hit.getId()))
+                .map(hit -> new SearchHit<>(items.get(hit.getId()), hit.getScore()))
+                .toList();
+    }
+
+    // Шаблон LIKE для поиска по префиксу; '!' объявлен в запросах как escape-символ
+    private static String prefixPattern(String query) {
+        return Objects.requireNonNull(query)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+    }
+}
@@ -0,0 +1,150 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.hogwarts.school.config.ReadYourWrites;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-flight для методов с {@link Coalesce}: первый вызов с данными аргументами (ведущий)
+ * выполняет метод в своём потоке, одновременные с ним вызовы с теми же аргументами ждут его результат.
+ * Ключ убирается из таблицы, как только ведущий закончил, — это не кэш: вызов после завершения
+ * снова идёт в БД.
+ * <p>
+ * Аспект стоит снаружи транзакционного прокси: у ведущего своя транзакция, ждущие транзакций не открывают
+ * и соединений из пула не берут. Внутри чужой транзакции вызов не объединяется — он должен видеть
+ * её незакоммиченные изменения. В ключ входит {@link WriteGeneration}: чтение, начатое после записи,
+ * не присоединится к запросу, начатому до неё.
+ * Таблица ключей ограничена maxKeys; сверх неё вызовы выполняются как обычно. Ждущий ждёт ведущего
+ * не дольше waitTimeout, после чего выполняет запрос сам, без объединения.
+ * <p>
+ * Вложенность аспектов: {@link OptimisticLockRetryAspect} (HIGHEST_PRECEDENCE) → {@link WriteGeneration} (+1)
+ * → этот аспект (+2) → транзакционный прокси (LOWEST_PRECEDENCE).
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class RequestCoalescingAspect {
+
+    private final boolean enabled;
+    private final int maxKeys;
+    private final long waitTimeoutNanos;
+    private final Map<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final WriteGeneration writeGeneration;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Calls> calls = new ConcurrentHashMap<>();
+
+    public RequestCoalescingAspect(MeterRegistry meterRegistry,
+                                   WriteGeneration writeGeneration,
+                                   @Value("${school.coalescing.enabled:true}") boolean enabled,
+                                   @Value("${school.coalescing.max-keys:10000}") int maxKeys,
+                                   @Value("${school.coalescing.wait-timeout:5s}") Duration waitTimeout) {
+        this.meterRegistry = meterRegistry;
+        this.writeGeneration = writeGeneration;
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        Gauge.builder("school.coalescing.in_flight", inFlight, Map::size)
+                .description("Distinct coalesced reads that are currently running")
+                .register(meterRegistry);
+    }
+
+    @Around("@annotation(ru.hogwarts.school.service.Coalesce)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!enabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String signature = joinPoint.getSignature().toLongString();
+        Calls methodCalls = calls.computeIfAbsent(signature, ignored -> new Calls(joinPoint));
+        Key key = new Key(signature, Arrays.asList(joinPoint.getArgs()),
+                writeGeneration.current(), ReadYourWrites.readsFromPrimary());
+
+        CompletableFuture<Object> flight = inFlight.get(key);
+        if (flight == null) {
+            if (inFlight.size() >= maxKeys) {
+                methodCalls.bypassed.increment();
+                return joinPoint.proceed();
+            }
+            CompletableFuture<Object> created = new CompletableFuture<>();
+            flight = inFlight.putIfAbsent(key, created);
+            if (flight == null) {
+                methodCalls.leader.increment();
+                return lead(joinPoint, key, created);
+            }
+        }
+        methodCalls.follower.increment();
+        try {
+            return flight.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            // Ведущий завис: ждущий не должен зависнуть вместе с ним
+            methodCalls.timedOut.increment();
+            return joinPoint.proceed();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return joinPoint.proceed();
+        }
+    }
+
+    // Ключ убирается до того, как результат отдан ждущим: вызов, пришедший после, идёт в БД заново,
+    // а не получает уже готовый результат
+    private Object lead(ProceedingJoinPoint joinPoint, Key key, CompletableFuture<Object> flight) throws Throwable {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, flight);
+        flight.complete(result);
+        return result;
+    }
+
+    private record Key(String method, List<Object> args, long generation, boolean primary) {
+    }
+
+    private final class Calls {
+        private final Counter leader;
+        private final Counter follower;
+        private final Counter bypassed;
+        private final Counter timedOut;
+
+        Calls(ProceedingJoinPoint joinPoint) {
+            String method = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                    + "." + joinPoint.getSignature().getName();
+            this.leader = counter(method, "leader");
+            this.follower = counter(method, "follower");
+            this.bypassed = counter(method, "bypassed");
+            this.timedOut = counter(method, "timed_out");
+        }
+
+        private Counter counter(String method, String role) {
+            return Counter.builder("school.coalescing.calls")
+                    .description("Coalesced service reads by role: leader ran the query, follower shared its result")
+                    .tag("method", method)
+                    .tag("role", role)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.hogwarts.school.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторяет метод при конфликте версий (@Version), см. {@link OptimisticLockRetryAspect}.
+ * Каждая попытка выполняется в новой транзакции и заново читает сущность, поэтому метод
+ * должен применять изменения как абсолютные значения, а не как приращения.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@interface RetryOnConflict {
+}
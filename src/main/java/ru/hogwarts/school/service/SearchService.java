@@ -0,0 +1,20 @@
+package ru.hogwarts.school.service;
+
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.List;
+
+/**
+ * Ранжированный поиск по имени студента и по имени/цвету факультета.
+ * Находит записи по префиксу и с опечатками (триграммы); совпадения по префиксу идут первыми.
+ * Реализация выбирается свойством {@code school.search.engine}: {@code postgres} (pg_trgm) или {@code memory}.
+ */
+public interface SearchService {
+    int MAX_LIMIT = 100;
+
+    List<SearchHit<Student>> searchStudents(String query, int limit);
+
+    List<SearchHit<Faculty>> searchFaculties(String query, int limit);
+}
@@ -0,0 +1,17 @@
+package ru.hogwarts.school.service;
+
+/**
+ * Имена кэшей агрегированной статистики.
+ */
+public final class StatisticsCaches {
+    public static final String STUDENT_STATS = "student-stats";
+    public static final String AGE_HISTOGRAM = "student-age-histogram";
+    public static final String FACULTY_STATS = "faculty-stats";
+    public static final String COLOR_STATS = "faculty-color-stats";
+
+    // Ключ записи в кэше статистики — текущее поколение данных, см. {@link WriteGeneration}
+    public static final String GENERATION_KEY = "@writeGeneration.current()";
+
+    private StatisticsCaches() {
+    }
+}
@@ -0,0 +1,66 @@
+package ru.hogwarts.school.service;
+
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.Objects;
+
+/**
+ * Переносит изменения студентов в FacultyEnrollmentCounter. Массовые JPQL/SQL-операции
+ * событий не порождают — такие расхождения исправляет периодическая сверка.
+ */
+class StudentEnrollmentListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+    private static final String FACULTY = "faculty";
+
+    private final FacultyEnrollmentCounter counter;
+
+    StudentEnrollmentListener(FacultyEnrollmentCounter counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Student student) {
+            counter.record(student.getFacultyId(), 1);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Student) {
+            int index = event.getPersister().getPropertyIndex(FACULTY);
+            counter.record(facultyId(event.getDeletedState()[index]), -1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Student) || event.getOldState() == null) {
+            return;
+        }
+        int index = event.getPersister().getPropertyIndex(FACULTY);
+        Long oldFacultyId = facultyId(event.getOldState()[index]);
+        Long newFacultyId = facultyId(event.getState()[index]);
+        if (!Objects.equals(oldFacultyId, newFacultyId)) {
+            counter.record(oldFacultyId, -1);
+            counter.record(newFacultyId, 1);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    // Для ленивого прокси id доступен без инициализации
+    private static Long facultyId(Object faculty) {
+        return faculty instanceof Faculty f ? f.getId() : null;
+    }
+}
@@ -0,0 +1,322 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import ru.hogwarts.school.dto.ImportJobStatus;
+import ru.hogwarts.school.dto.StudentImportRow;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Потоковый импорт студентов из CSV или NDJSON.
+ * <p>
+ * Задание регистрируется сразу после проверки заголовка, а файл дочитывает поток чтения
+ * (не поток запроса): он проверяет строки ограничениями {@link Student} и передаёт их пакетами
+ * по chunkSize в пул рабочих потоков, который пишет их через {@link StudentService#createStudents}.
+ * Число пакетов в работе и в очереди ограничено, поэтому при медленной БД чтение приостанавливается,
+ * а память не растёт с размером файла. Каждый пакет — отдельная транзакция, порядок записи пакетов
+ * не гарантируется.
+ */
+@Service
+public class StudentImportService {
+    private static final Logger logger = LoggerFactory.getLogger(StudentImportService.class);
+    // Факультетов немного; предел защищает от файла с миллионом несуществующих названий
+    private static final int MAX_CACHED_FACULTIES = 10_000;
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Зарегистрированное задание; {@code bodyRead} завершается, когда файл дочитан
+     * (последние пакеты могут дописываться и после этого).
+     */
+    public record StartedImport(ImportJobStatus status, CompletableFuture<Void> bodyRead) {
+    }
+
+    private final StudentService studentService;
+    private final FacultyRepository facultyRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final Duration jobRetention;
+    private final Duration maxUploadDuration;
+    private final ExecutorService readers;
+    private final ExecutorService workers;
+    private final Semaphore chunkPermits;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public StudentImportService(StudentService studentService,
+                                FacultyRepository facultyRepository,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${school.import.chunk-size:500}") int chunkSize,
+                                @Value("${school.import.workers:2}") int workerCount,
+                                @Value("${school.import.queue-capacity:4}") int queueCapacity,
+                                @Value("${school.import.max-active-jobs:4}") int maxActiveJobs,
+                                @Value("${school.import.max-errors:100}") int maxErrors,
+                                @Value("${school.import.job-retention:PT1H}") Duration jobRetention,
+                                @Value("${school.import.max-upload-duration:PT30M}") Duration maxUploadDuration) {
+        this.studentService = studentService;
+        this.facultyRepository = facultyRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.jobRetention = jobRetention;
+        this.maxUploadDuration = maxUploadDuration;
+        // Без очереди: лишний импорт получает отказ сразу, а не ждёт, держа открытый запрос
+        this.readers = new ThreadPoolExecutor(0, maxActiveJobs, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), new CustomizableThreadFactory("student-import-reader-"));
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("student-import-"));
+        this.chunkPermits = new Semaphore(workerCount + queueCapacity);
+        this.importedRows = Counter.builder("school.import.rows")
+                .description("Rows processed by student imports")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("school.import.rows")
+                .description("Rows processed by student imports")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("school.import.jobs.active", jobs,
+                        all -> all.values().stream().filter(job -> !job.isFinished()).count())
+                .description("Student imports that are still running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Проверяет заголовок файла, регистрирует задание и запускает чтение остальных строк в фоне.
+     * Поток {@code input} должен оставаться открытым до завершения {@link StartedImport#bodyRead}.
+     * Чтение дольше school.import.max-upload-duration завершает задание с ошибкой.
+     *
+     * @throws IllegalArgumentException если в заголовке CSV нет обязательных колонок
+     * @throws RejectedExecutionException если одновременно идёт уже school.import.max-active-jobs импортов
+     */
+    public StartedImport startImport(InputStream input, Format format) throws IOException {
+        InputStream limited = new DeadlineInputStream(input, System.nanoTime() + maxUploadDuration.toNanos());
+        BufferedReader lines = new BufferedReader(new InputStreamReader(limited, StandardCharsets.UTF_8));
+        StudentRowReader reader = format == Format.CSV ? StudentRowReader.csv(lines) : StudentRowReader.ndjson(lines, objectMapper);
+        ImportJob job = new ImportJob(format, maxErrors);
+        jobs.put(job.id(), job);
+        try {
+            CompletableFuture<Void> bodyRead = CompletableFuture.runAsync(() -> read(job, reader), readers);
+            return new StartedImport(job.status(), bodyRead);
+        } catch (RuntimeException e) {
+            jobs.remove(job.id());
+            throw e;
+        }
+    }
+
+    private void read(ImportJob job, StudentRowReader reader) {
+        try {
+            readChunks(job, reader);
+            job.readFinished();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Student import {} stopped at line {}", job.id(), reader.lineNumber(), e);
+            job.readFailed(reader.lineNumber() + 1, Objects.requireNonNullElse(e.getMessage(), e.toString()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.readFailed(reader.lineNumber() + 1, "import interrupted");
+        }
+    }
+
+    public ImportJobStatus getStatus(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        return job != null ? job.status() : null;
+    }
+
+    private void readChunks(ImportJob job, StudentRowReader reader) throws IOException, InterruptedException {
+        Map<String, Optional<Faculty>> faculties = new HashMap<>();
+        List<Student> chunk = new ArrayList<>(chunkSize);
+        long[] lines = new long[chunkSize];
+        for (StudentRowReader.Row row = reader.next(); row != null; row = reader.next()) {
+            job.rowRead();
+            String error = row.error();
+            Student student = null;
+            if (error == null) {
+                student = toStudent(row.value(), faculties);
+                error = student == null ? "empty record" : validate(row.value(), student);
+            }
+            if (error != null) {
+                job.reject(row.line(), error);
+                rejectedRows.increment();
+                continue;
+            }
+            lines[chunk.size()] = row.line();
+            chunk.add(student);
+            if (chunk.size() == chunkSize) {
+                submit(job, chunk, lines);
+                chunk = new ArrayList<>(chunkSize);
+                lines = new long[chunkSize];
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submit(job, chunk, lines);
+        }
+    }
+
+    private Student toStudent(StudentImportRow row, Map<String, Optional<Faculty>> faculties) {
+        if (row == null) {
+            return null;
+        }
+        Student student = new Student(row.name(), row.age() != null ? row.age() : 0);
+        if (row.faculty() != null && !row.faculty().isBlank()) {
+            student.setFaculty(findFaculty(row.faculty(), faculties).orElse(null));
+        }
+        return student;
+    }
+
+    // Поверх query cache у findByName: повторные названия в файле не доходят даже до кэша Hibernate
+    private Optional<Faculty> findFaculty(String name, Map<String, Optional<Faculty>> faculties) {
+        Optional<Faculty> faculty = faculties.get(name);
+        if (faculty == null) {
+            faculty = Optional.ofNullable(facultyRepository.findByName(name));
+            if (faculties.size() < MAX_CACHED_FACULTIES) {
+                faculties.put(name, faculty);
+            }
+        }
+        return faculty;
+    }
+
+    private String validate(StudentImportRow row, Student student) {
+        if (row.age() == null) {
+            return "age: must not be null";
+        }
+        if (row.faculty() != null && !row.faculty().isBlank() && student.getFaculty() == null) {
+            return "faculty: unknown faculty '" + row.faculty() + "'";
+        }
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return ConstraintViolations.describe(violations);
+    }
+
+    // Ждёт свободного места в очереди: так чтение файла не обгоняет запись в БД
+    private void submit(ImportJob job, List<Student> chunk, long[] lines) throws InterruptedException {
+        chunkPermits.acquire();
+        job.chunkSubmitted();
+        try {
+            workers.execute(() -> {
+                try {
+                    write(job, chunk, lines);
+                } finally {
+                    chunkPermits.release();
+                    job.chunkFinished();
+                }
+            });
+        } catch (RuntimeException e) {
+            chunkPermits.release();
+            job.chunkFinished();
+            throw e;
+        }
+    }
+
+    private void write(ImportJob job, List<Student> chunk, long[] lines) {
+        try {
+            studentService.createStudents(chunk);
+            job.imported(chunk.size());
+            importedRows.increment(chunk.size());
+        } catch (RuntimeException e) {
+            logger.warn("Student import {} failed to write lines {}-{}", job.id(), lines[0], lines[chunk.size() - 1], e);
+            String message = "not saved: " + e.getMessage();
+            for (int i = 0; i < chunk.size(); i++) {
+                job.reject(lines[i], message);
+            }
+            rejectedRows.increment(chunk.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${school.import.job-retention:PT1H}")
+    public void purgeFinishedJobs() {
+        Instant threshold = Instant.now().minus(jobRetention);
+        jobs.values().removeIf(job -> job.isFinished() && job.finishedAt().isBefore(threshold));
+    }
+
+    // Срок проверяется перед каждым чтением; чтение, которое ждёт данных от клиента, ограничено таймаутом сокета
+    private static final class DeadlineInputStream extends FilterInputStream {
+        private final long deadline;
+
+        DeadlineInputStream(InputStream in, long deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline();
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            checkDeadline();
+            return super.skip(n);
+        }
+
+        private void checkDeadline() throws IOException {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IOException("upload exceeded school.import.max-upload-duration");
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        readers.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.warn("Student import workers did not finish in time");
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import ru.hogwarts.school.dto.StudentImportRow;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Построчное чтение файла импорта: в памяти только текущая строка.
+ * Ошибка в строке не прерывает чтение — строка возвращается с текстом ошибки.
+ * <p>
+ * CSV: первая строка — заголовок с колонками {@code name}, {@code age} и необязательной {@code faculty}
+ * в любом порядке; поля в двойных кавычках могут содержать запятые и {@code ""}, но не переводы строк.
+ */
+abstract class StudentRowReader {
+    private static final String BOM = "\uFEFF";
+
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    private StudentRowReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static StudentRowReader csv(BufferedReader reader) throws IOException {
+        return new Csv(reader);
+    }
+
+    static StudentRowReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper);
+    }
+
+    /**
+     * @return следующая непустая строка или {@code null} в конце файла
+     */
+    Row next() throws IOException {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+        return parse(lineNumber, line);
+    }
+
+    abstract Row parse(long line, String text);
+
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line != null && ++lineNumber == 1 && line.startsWith(BOM)) {
+            line = line.substring(BOM.length());
+        }
+        return line;
+    }
+
+    record Row(long line, StudentImportRow value, String error) {
+
+        static Row of(long line, StudentImportRow value) {
+            return new Row(line, value, null);
+        }
+
+        static Row invalid(long line, String error) {
+            return new Row(line, null, error);
+        }
+    }
+
+    private static final class Csv extends StudentRowReader {
+        private final int nameColumn;
+        private final int ageColumn;
+        private final int facultyColumn;
+
+        Csv(BufferedReader reader) throws IOException {
+            super(reader);
+            String header = readLine();
+            List<String> columns = header != null ? split(header) : List.of();
+            List<String> names = columns.stream().map(column -> column.toLowerCase(Locale.ROOT)).toList();
+            nameColumn = names.indexOf("name");
+            ageColumn = names.indexOf("age");
+            facultyColumn = names.indexOf("faculty");
+            if (nameColumn < 0 || ageColumn < 0) {
+                throw new IllegalArgumentException("CSV header must contain name and age columns");
+            }
+        }
+
+        @Override
+        Row parse(long line, String text) {
+            List<String> fields;
+            try {
+                fields = split(text);
+            } catch (IllegalArgumentException e) {
+                return Row.invalid(line, e.getMessage());
+            }
+            String age = field(fields, ageColumn);
+            Integer parsedAge = null;
+            if (age != null) {
+                try {
+                    parsedAge = Integer.valueOf(age);
+                } catch (NumberFormatException e) {
+                    return Row.invalid(line, "age: not a number");
+                }
+            }
+            return Row.of(line, new StudentImportRow(field(fields, nameColumn), parsedAge, field(fields, facultyColumn)));
+        }
+
+        private static String field(List<String> fields, int column) {
+            if (column < 0 || column >= fields.size() || fields.get(column).isEmpty()) {
+                return null;
+            }
+            return fields.get(column);
+        }
+
+        // Поля без кавычек обрезаются по краям, в кавычках — берутся как есть
+        static List<String> split(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            int i = 0;
+            while (true) {
+                while (i < line.length() && line.charAt(i) == ' ') {
+                    i++;
+                }
+                if (i < line.length() && line.charAt(i) == '"') {
+                    i++;
+                    while (true) {
+                        if (i >= line.length()) {
+                            throw new IllegalArgumentException("unterminated quoted field");
+                        }
+                        char c = line.charAt(i++);
+                        if (c != '"') {
+                            field.append(c);
+                        } else if (i < line.length() && line.charAt(i) == '"') {
+                            field.append('"');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    }
+                    while (i < line.length() && line.charAt(i) != ',') {
+                        if (line.charAt(i++) != ' ') {
+                            throw new IllegalArgumentException("unexpected character after quoted field");
+                        }
+                    }
+                    fields.add(field.toString());
+                } else {
+                    int comma = line.indexOf(',', i);
+                    int end = comma < 0 ? line.length() : comma;
+                    fields.add(line.substring(i, end).trim());
+                    i = end;
+                }
+                field.setLength(0);
+                if (i >= line.length()) {
+                    return fields;
+                }
+                i++; // запятая
+            }
+        }
+    }
+
+    private static final class Ndjson extends StudentRowReader {
+        private final ObjectReader rowReader;
+
+        Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.rowReader = objectMapper.readerFor(StudentImportRow.class)
+                    .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+
+        @Override
+        Row parse(long line, String text) {
+            try {
+                return Row.of(line, rowReader.readValue(text));
+            } catch (JsonProcessingException e) {
+                return Row.invalid(line, "malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
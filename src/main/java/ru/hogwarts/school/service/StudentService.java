@@ -1,39 +1,135 @@
 package ru.hogwarts.school.service;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hogwarts.school.dto.AgeBucket;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.CollectionVersion;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.ChangeEvent;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
 import ru.hogwarts.school.repository.StudentRepository;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "school.service", description = "Service method latency")
+// Чтение по умолчанию в read-only транзакции: Hibernate не делает снимков сущностей
+// и не сбрасывает persistence context; изменяющие методы помечены @Transactional явно
+@Transactional(readOnly = true)
 public class StudentService {
     private final StudentRepository studentRepository;
+    private final SearchService searchService;
+    private final ChangeOutbox changeOutbox;
+    private final EntityManager entityManager;
+    private final Validator validator;
+    private final int batchSize;
 
-    public StudentService(StudentRepository studentRepository) {
+    public StudentService(StudentRepository studentRepository,
+                          SearchService searchService,
+                          ChangeOutbox changeOutbox,
+                          EntityManager entityManager,
+                          Validator validator,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
         this.studentRepository = studentRepository;
+        this.searchService = searchService;
+        this.changeOutbox = changeOutbox;
+        this.entityManager = entityManager;
+        this.validator = validator;
+        this.batchSize = batchSize;
     }
 
+    @Transactional
+    @EvictStatistics
     public Student createStudent(Student student) {
-        return studentRepository.save(student);
+        Student created = studentRepository.save(student);
+        changeOutbox.record(ChangeEvent.EntityType.STUDENT, created.getId(), ChangeEvent.Operation.CREATED);
+        return created;
     }
 
     public Student getStudentById(Long id) {
         return studentRepository.findById(id).orElse(null);
     }
 
-    public List<Student> getAllStudents() {
-        return studentRepository.findAll();
+    // Если студент уже в кэше второго уровня, версия берётся оттуда без SQL,
+    // иначе — одним запросом без загрузки сущности
+    public Long getStudentVersion(Long id) {
+        if (entityManager.getEntityManagerFactory().getCache().contains(Student.class, id)) {
+            Student student = getStudentById(id);
+            return student != null ? Objects.requireNonNullElse(student.getVersion(), 0L) : null;
+        }
+        return studentRepository.findVersionById(id).orElse(null);
+    }
+
+    public CollectionVersion getStudentCollectionVersion() {
+        return studentRepository.getCollectionVersion();
+    }
+
+    public List<StudentView> getAllStudents() {
+        return studentRepository.findAllViews();
     }
 
+    public List<StudentView> getStudentsAfter(long afterId, int limit) {
+        return studentRepository.findViewsAfter(afterId, Limit.of(limit));
+    }
+
+    @RetryOnConflict
+    @Transactional
+    @EvictStatistics
     public Student updateStudent(Long id, Student studentDetails) {
+        return updateStudent(id, studentDetails, null);
+    }
+
+    // expectedVersion — версия из If-Match; проверяется в той же транзакции, что и обновление.
+    // Без повтора: после конфликта версия уже не совпадёт с ожидаемой
+    @Transactional
+    @EvictStatistics
+    public Student updateStudent(Long id, Student studentDetails, Long expectedVersion) {
         Student student = getStudentById(id);
         if (student == null) {
             return null;
         }
+        if (expectedVersion != null && !expectedVersion.equals(Objects.requireNonNullElse(student.getVersion(), 0L))) {
+            throw new ObjectOptimisticLockingFailureException(Student.class, id);
+        }
 
+        Set<ConstraintViolation<Student>> violations = validateUpdate(student, studentDetails);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        applyDetails(student, studentDetails);
+
+        changeOutbox.record(ChangeEvent.EntityType.STUDENT, id, ChangeEvent.Operation.UPDATED);
+        return studentRepository.save(student);
+    }
+
+    // Обновление частичное, поэтому проверяется результат слияния, а не тело запроса.
+    // Проверка до изменения управляемой сущности: иначе невалидные значения ушли бы в flush
+    private Set<ConstraintViolation<Student>> validateUpdate(Student student, Student studentDetails) {
+        Student merged = new Student(student.getName(), student.getAge());
+        applyDetails(merged, studentDetails);
+        return validator.validate(merged);
+    }
+
+    private void applyDetails(Student student, Student studentDetails) {
         if (studentDetails.getName() != null) {
             student.setName(studentDetails.getName());
         }
@@ -43,28 +139,57 @@ public class StudentService {
         if (studentDetails.getFaculty() != null) {
             student.setFaculty(studentDetails.getFaculty());
         }
-
-        return studentRepository.save(student);
     }
 
+    @Transactional
+    @EvictStatistics
     public Student deleteStudent(Long id) {
         Student student = getStudentById(id);
         if (student != null) {
             studentRepository.deleteById(id);
+            changeOutbox.record(ChangeEvent.EntityType.STUDENT, id, ChangeEvent.Operation.DELETED);
         }
         return student;
     }
 
-    public List<Student> getStudentsByAge(int age) {
-        return studentRepository.findByAge(age);
+    @Coalesce
+    public List<StudentView> getStudentsByAge(int age) {
+        return studentRepository.findViewsByAge(age);
     }
 
-    public List<Student> getStudentsByAgeBetween(int minAge, int maxAge) {
-        return studentRepository.findByAgeBetween(minAge, maxAge);
+    public List<StudentView> getStudentsByAgeBetween(int minAge, int maxAge) {
+        return studentRepository.findViewsByAgeBetween(minAge, maxAge);
     }
 
-    public List<Student> getStudentsByName(String name) {
-        return studentRepository.findByNameContainingIgnoreCase(name);
+    public List<StudentView> getStudentsByAgeAfter(int age, long afterId, int limit) {
+        return studentRepository.findViewsByAgeAfter(age, afterId, Limit.of(limit));
+    }
+
+    public List<StudentView> getStudentsByAgeBetweenAfter(int minAge, int maxAge, long afterId, int limit) {
+        return studentRepository.findViewsByAgeBetweenAfter(minAge, maxAge, afterId, Limit.of(limit));
+    }
+
+    public List<StudentView> getStudentsByName(String name) {
+        return studentRepository.findViewsByNameContaining(name);
+    }
+
+    public List<StudentView> getStudentsByNameAfter(String name, long afterId, int limit) {
+        return studentRepository.findViewsByNameContainingAfter(name, afterId, Limit.of(limit));
+    }
+
+    public List<SearchHit<Student>> searchStudents(String query, int limit) {
+        return searchService.searchStudents(query, limit);
+    }
+
+    // Статистика кэшируется до ближайшего изменения студентов (@EvictStatistics)
+    @Cacheable(cacheNames = StatisticsCaches.STUDENT_STATS, key = StatisticsCaches.GENERATION_KEY)
+    public StudentStats getStudentStats() {
+        return studentRepository.getStats();
+    }
+
+    @Cacheable(cacheNames = StatisticsCaches.AGE_HISTOGRAM, key = StatisticsCaches.GENERATION_KEY)
+    public List<AgeBucket> getAgeHistogram() {
+        return studentRepository.getAgeHistogram();
     }
 
     public Faculty getStudentFaculty(Long studentId) {
@@ -75,25 +200,125 @@ public class StudentService {
         return student.getFaculty();
     }
 
+    @RetryOnConflict
+    @Transactional
+    @EvictStatistics
     public Student assignFacultyToStudent(Long studentId, Faculty faculty) {
         Student student = getStudentById(studentId);
         if (student == null) {
             return null;
         }
         student.setFaculty(faculty);
+        changeOutbox.record(ChangeEvent.EntityType.STUDENT, studentId, ChangeEvent.Operation.UPDATED);
         return studentRepository.save(student);
     }
 
-    public List<Student> getStudentsWithoutFaculty() {
-        return studentRepository.findAll().stream()
-                .filter(student -> student.getFaculty() == null)
-                .collect(Collectors.toList());
+    // Только постранично: полный список без факультета рос бы вместе с таблицей
+    public List<StudentView> getStudentsWithoutFacultyAfter(long afterId, int limit) {
+        return studentRepository.findViewsWithoutFacultyAfter(afterId, Limit.of(limit));
+    }
+
+    public List<StudentView> getStudentsByFacultyIdAfter(Long facultyId, long afterId, int limit) {
+        return studentRepository.findViewsByFacultyIdAfter(facultyId, afterId, Limit.of(limit));
+    }
+
+    // Пакетные операции выполняются в одной транзакции; persistence context сбрасывается
+    // каждые batchSize записей, чтобы Hibernate отправлял JDBC-пакеты и не копил сущности
+    @Transactional
+    @EvictStatistics
+    public List<BatchItemResult> createStudents(List<Student> students) {
+        List<BatchItemResult> results = new ArrayList<>(students.size());
+        int pending = 0;
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            if (student == null || student.getId() != null) {
+                results.add(BatchItemResult.invalid(i, student != null ? student.getId() : null,
+                        "Cannot create student with existing ID"));
+                continue;
+            }
+            // Невалидный элемент отклоняется сам: при persist исключение валидации откатило бы весь пакет
+            Set<ConstraintViolation<Student>> violations = validator.validate(student);
+            if (!violations.isEmpty()) {
+                results.add(BatchItemResult.invalid(i, null, ConstraintViolations.describe(violations)));
+                continue;
+            }
+            entityManager.persist(student);
+            changeOutbox.record(ChangeEvent.EntityType.STUDENT, student.getId(), ChangeEvent.Operation.CREATED);
+            results.add(BatchItemResult.of(i, student.getId(), BatchItemResult.Status.CREATED));
+            if (++pending == batchSize) {
+                flushAndClear();
+                pending = 0;
+            }
+        }
+        return results;
+    }
+
+    @Transactional
+    @EvictStatistics
+    public List<BatchItemResult> updateStudents(List<Student> students) {
+        List<BatchItemResult> results = new ArrayList<>(students.size());
+        for (int from = 0; from < students.size(); from += batchSize) {
+            List<Student> chunk = students.subList(from, Math.min(from + batchSize, students.size()));
+            Map<Long, Student> existing = findAllById(chunk.stream()
+                    .filter(student -> student != null && student.getId() != null)
+                    .map(Student::getId)
+                    .toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                Student details = chunk.get(i);
+                if (details == null || details.getId() == null) {
+                    results.add(BatchItemResult.invalid(from + i, null, "Student ID is required"));
+                    continue;
+                }
+                Student student = existing.get(details.getId());
+                if (student == null) {
+                    results.add(BatchItemResult.of(from + i, details.getId(), BatchItemResult.Status.NOT_FOUND));
+                    continue;
+                }
+                Set<ConstraintViolation<Student>> violations = validateUpdate(student, details);
+                if (!violations.isEmpty()) {
+                    results.add(BatchItemResult.invalid(from + i, student.getId(),
+                            ConstraintViolations.describe(violations)));
+                    continue;
+                }
+                applyDetails(student, details);
+                changeOutbox.record(ChangeEvent.EntityType.STUDENT, student.getId(), ChangeEvent.Operation.UPDATED);
+                results.add(BatchItemResult.of(from + i, student.getId(), BatchItemResult.Status.UPDATED));
+            }
+            flushAndClear();
+        }
+        return results;
+    }
+
+    @Transactional
+    @EvictStatistics
+    public List<BatchItemResult> deleteStudents(List<Long> ids) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Map<Long, Student> existing = findAllById(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                Long id = chunk.get(i);
+                Student student = id != null ? existing.remove(id) : null;
+                if (student != null) {
+                    entityManager.remove(student);
+                    changeOutbox.record(ChangeEvent.EntityType.STUDENT, id, ChangeEvent.Operation.DELETED);
+                    results.add(BatchItemResult.of(from + i, id, BatchItemResult.Status.DELETED));
+                } else {
+                    results.add(BatchItemResult.of(from + i, id, BatchItemResult.Status.NOT_FOUND));
+                }
+            }
+            flushAndClear();
+        }
+        return results;
+    }
+
+    private Map<Long, Student> findAllById(List<Long> ids) {
+        return studentRepository.findAllById(ids.stream().filter(Objects::nonNull).toList()).stream()
+                .collect(Collectors.toMap(Student::getId, Function.identity()));
     }
 
-    public List<Student> getStudentsByFacultyId(Long facultyId) {
-        return studentRepository.findAll().stream()
-                .filter(student -> student.getFaculty() != null &&
-                        student.getFaculty().getId().equals(facultyId))
-                .collect(Collectors.toList());
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package ru.hogwarts.school.service;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Триграммы в том же виде, что строит расширение pg_trgm: строка приводится к нижнему регистру,
+ * делится на слова, каждое слово дополняется двумя пробелами в начале и одним в конце.
+ */
+final class Trigrams {
+    // Значение pg_trgm.word_similarity_threshold по умолчанию
+    static final double WORD_SIMILARITY_THRESHOLD = 0.6;
+
+    private Trigrams() {
+    }
+
+    static Set<String> of(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    // Доля триграмм запроса, найденных в тексте: приближение word_similarity(query, text)
+    static double wordSimilarity(Set<String> queryTrigrams, String text) {
+        if (queryTrigrams.isEmpty()) {
+            return 0;
+        }
+        Set<String> textTrigrams = of(text);
+        int common = 0;
+        for (String trigram : queryTrigrams) {
+            if (textTrigrams.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / queryTrigrams.size();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.hogwarts.school.service;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Поколение данных студентов и факультетов: растёт после коммита каждого метода с {@link EvictStatistics}.
+ * Входит в ключи кэшей статистики ({@link StatisticsCaches#GENERATION_KEY}): результат чтения,
+ * начатого до записи, попадает в кэш под старым поколением и после записи уже не читается.
+ * Чтение с отстающей реплики может закэшировать устаревшие данные и под новым поколением;
+ * такое устаревание ограничено отставанием реплики и TTL кэша.
+ * <p>
+ * Аспект стоит снаружи транзакционного прокси, поэтому к моменту, когда метод вернулся, его транзакция
+ * уже закоммичена; если метод выполнялся внутри чужой транзакции, поколение растёт после её завершения.
+ * Порядок — сразу после {@link OptimisticLockRetryAspect}: поколение растёт один раз, после последней попытки.
+ * Вложенность аспектов описана в {@link RequestCoalescingAspect}.
+ */
+@Aspect
+@Component("writeGeneration")
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class WriteGeneration {
+    private final AtomicLong generation = new AtomicLong();
+
+    public long current() {
+        return generation.get();
+    }
+
+    @Around("@annotation(ru.hogwarts.school.service.EvictStatistics)")
+    public Object advanceAfterWrite(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } finally {
+            advance();
+        }
+    }
+
+    void advance() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+-- Схема в том виде, в котором её раньше создавал ddl-auto=update.
+-- На существующей БД эта миграция не выполняется: baseline-on-migrate помечает её как применённую.
+CREATE SEQUENCE IF NOT EXISTS faculties_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS students_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE faculties
+(
+    id      BIGINT       NOT NULL,
+    name    VARCHAR(255) NOT NULL,
+    color   VARCHAR(255) NOT NULL,
+    version BIGINT,
+    CONSTRAINT pk_faculties PRIMARY KEY (id),
+    CONSTRAINT uk_faculties_name UNIQUE (name)
+);
+
+CREATE TABLE students
+(
+    id         BIGINT  NOT NULL,
+    name       VARCHAR(255),
+    age        INTEGER NOT NULL,
+    version    BIGINT,
+    faculty_id BIGINT,
+    CONSTRAINT pk_students PRIMARY KEY (id),
+    CONSTRAINT fk_students_faculty FOREIGN KEY (faculty_id) REFERENCES faculties (id)
+);
+
+CREATE INDEX idx_students_faculty_id ON students (faculty_id);
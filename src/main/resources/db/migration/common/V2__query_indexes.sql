@@ -0,0 +1,12 @@
+-- Индексы под запросы репозиториев:
+--   findViewsByAge(After), findViewsByAgeBetween(After), getStats, getAgeHistogram -> idx_students_age
+--   getFacultyStats, getColorStats (студенты факультета и avg(age))               -> idx_students_faculty_id_age
+--   findViewsByColor, findViewsByColorAfter                                        -> idx_faculties_color
+-- idx_students_name запросы репозиториев сейчас не используют: поиск по подстроке идёт через триграммы (V3).
+-- idx_students_faculty_id (findViewsByFacultyId(After), countByFaculty_Id) создаётся в V1
+-- (раньше его создавал Hibernate по @Index).
+CREATE INDEX IF NOT EXISTS idx_students_faculty_id ON students (faculty_id);
+CREATE INDEX IF NOT EXISTS idx_students_age ON students (age);
+CREATE INDEX IF NOT EXISTS idx_students_name ON students (name);
+CREATE INDEX IF NOT EXISTS idx_students_faculty_id_age ON students (faculty_id, age);
+CREATE INDEX IF NOT EXISTS idx_faculties_color ON faculties (color);
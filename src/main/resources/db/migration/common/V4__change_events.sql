@@ -0,0 +1,19 @@
+-- Outbox: записи об изменениях студентов и факультетов пишутся в той же транзакции,
+-- что и сами изменения. Позицию в ленте (feed_position) присваивает ретранслятор
+-- при публикации, поэтому порядок ленты совпадает с порядком публикации, а не выдачи id.
+CREATE SEQUENCE IF NOT EXISTS change_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE change_events
+(
+    id            BIGINT                   NOT NULL,
+    entity_type   VARCHAR(16)              NOT NULL,
+    entity_id     BIGINT                   NOT NULL,
+    operation     VARCHAR(16)              NOT NULL,
+    created_at    TIMESTAMP WITH TIME ZONE NOT NULL,
+    feed_position BIGINT,
+    CONSTRAINT pk_change_events PRIMARY KEY (id),
+    CONSTRAINT uk_change_events_feed_position UNIQUE (feed_position)
+);
+
+-- Неопубликованные записи (feed_position is null) выбираются по порядку id
+CREATE INDEX idx_change_events_unpublished ON change_events (feed_position, id);
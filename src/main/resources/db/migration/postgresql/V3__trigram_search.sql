@@ -0,0 +1,10 @@
+-- Триграммный поиск (GET /student/search/ranked, /faculty/search/ranked и поиск по подстроке).
+-- Индексы построены по upper(...), как и условия в запросах, иначе планировщик их не использует.
+-- Расширение создаётся один раз; если у пользователя приложения нет прав, его ставит администратор БД.
+-- CONCURRENTLY не блокирует запись в таблицы на время построения, но не работает внутри транзакции:
+-- миграция выполняется без неё (V3__trigram_search.sql.conf). Если построение прервалось, остаётся
+-- индекс в состоянии INVALID, который IF NOT EXISTS пропустит: его нужно удалить и повторить миграцию.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_students_name_trgm ON students USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_faculties_name_trgm ON faculties USING gin (upper(name) gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_faculties_color_trgm ON faculties USING gin (upper(color) gin_trgm_ops);
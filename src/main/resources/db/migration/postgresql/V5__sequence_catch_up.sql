@@ -0,0 +1,13 @@
+-- Последовательности для id (allocationSize = 50, pooled optimizer).
+-- На БД, созданной ещё через ddl-auto=update, V1 только помечен как применённый (baseline),
+-- поэтому последовательности создаются здесь и сдвигаются за уже выданные id.
+-- Значение не уменьшается: на БД, где V1 выполнялся, приложение могло уже занять блоки id.
+CREATE SEQUENCE IF NOT EXISTS students_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('students_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM students) + 50,
+        (SELECT last_value FROM students_seq)));
+
+CREATE SEQUENCE IF NOT EXISTS faculties_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('faculties_seq', GREATEST(
+        (SELECT COALESCE(MAX(id), 0) FROM faculties) + 50,
+        (SELECT last_value FROM faculties_seq)));
@@ -26,4 +26,6 @@ SELECT AVG(age) as average_age FROM students;
 SELECT
     MIN(age) as min_age,
     MAX(age) as max_age
-FROM students;
\ No newline at end of file
+FROM students;
+
+-- Последовательности id и индексы (в том числе триграммные) теперь создаются миграциями Flyway: src/main/resources/db/migration/common и db/migration/postgresql.
@@ -0,0 +1,67 @@
+package ru.hogwarts.school.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdConcurrencyLimiterTest {
+    private static final long THRESHOLD = 1_000;
+
+    @Test
+    void testRejectsAboveLimit() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(1, 2, THRESHOLD);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release(THRESHOLD / 2, false);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void testSlowOrFailedRequestsShrinkLimitDownToMinimum() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(3, 10, THRESHOLD);
+
+        limiter.tryAcquire();
+        limiter.release(THRESHOLD * 2, false);
+        assertThat(limiter.getLimit()).isEqualTo(9);
+
+        limiter.tryAcquire();
+        limiter.release(0, true);
+        assertThat(limiter.getLimit()).isEqualTo(8);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(THRESHOLD * 2, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void testFastRequestsGrowLimitOnlyWhenBusy() {
+        AimdConcurrencyLimiter limiter = new AimdConcurrencyLimiter(2, 10, THRESHOLD);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.release(THRESHOLD * 2, false);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        // Один запрос за раз при пределе 4 и выше не считается нагрузкой
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.release(0, false);
+            limiter.release(0, false);
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(2);
+        int grown = limiter.getLimit();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(0, false);
+        }
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(grown + 1);
+    }
+}
@@ -0,0 +1,90 @@
+package ru.hogwarts.school.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolSettingsTest {
+
+    private static final String POSTGRES_URL = "jdbc:postgresql://localhost:5432/hogwarts";
+
+    @Test
+    void testShippedProfilesAreValid() throws IOException {
+        for (String profile : ConnectionPoolSettings.PERFORMANCE_PROFILES) {
+            MockEnvironment environment = postgres();
+            environment.setActiveProfiles(profile);
+            load(environment, "application.properties");
+            load(environment, "application-" + profile + ".properties");
+
+            assertThat(ConnectionPoolSettings.validate(environment)).as(profile).isEmpty();
+        }
+    }
+
+    @Test
+    void testRejectsConflictingProfiles() {
+        MockEnvironment environment = postgres();
+        environment.setActiveProfiles("latency", "lowmem");
+
+        assertThat(ConnectionPoolSettings.validate(environment)).singleElement().asString().contains("only one");
+    }
+
+    @Test
+    void testRejectsValuesHikariWouldSilentlyReplace() {
+        MockEnvironment environment = postgres()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "4")
+                .withProperty("spring.datasource.hikari.minimum-idle", "8")
+                .withProperty("spring.datasource.hikari.max-lifetime", "10000")
+                .withProperty("spring.datasource.hikari.leak-detection-threshold", "500");
+
+        List<String> problems = ConnectionPoolSettings.validate(environment);
+
+        assertThat(problems).hasSize(5)
+                .anyMatch(problem -> problem.startsWith("minimum-idle"))
+                .anyMatch(problem -> problem.startsWith("max-lifetime"))
+                .anyMatch(problem -> problem.startsWith("idle-timeout"))
+                .anyMatch(problem -> problem.startsWith("keepalive-time"))
+                .anyMatch(problem -> problem.startsWith("leak-detection-threshold"));
+    }
+
+    @Test
+    void testRejectsDriverSettingsPgJdbcWouldIgnore() {
+        MockEnvironment environment = postgres()
+                .withProperty("spring.datasource.hikari.data-source-properties.prepareThreshold", "often")
+                .withProperty("spring.datasource.hikari.data-source-properties.rewriteBatchedInserts", "true")
+                .withProperty("spring.datasource.hikari.data-source-properties.reWriteBatchedInserts", "true")
+                .withProperty("spring.jpa.properties.hibernate.jdbc.batch_size", "1");
+
+        List<String> problems = ConnectionPoolSettings.validate(environment);
+
+        assertThat(problems).hasSize(3)
+                .anyMatch(problem -> problem.contains("prepareThreshold must be an integer"))
+                .anyMatch(problem -> problem.contains("did you mean 'reWriteBatchedInserts'"))
+                .anyMatch(problem -> problem.contains("no effect without hibernate.jdbc.batch_size"));
+    }
+
+    @Test
+    void testSkipsDriverChecksForOtherDatabases() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.url", "jdbc:h2:mem:hogwarts")
+                .withProperty("spring.datasource.hikari.data-source-properties.prepareThreshold", "often");
+
+        assertThat(ConnectionPoolSettings.validate(environment)).isEmpty();
+    }
+
+    private static MockEnvironment postgres() {
+        return new MockEnvironment().withProperty("spring.datasource.url", POSTGRES_URL);
+    }
+
+    private static void load(MockEnvironment environment, String resource) throws IOException {
+        for (PropertySource<?> source : new PropertiesPropertySourceLoader().load(resource, new ClassPathResource(resource))) {
+            environment.getPropertySources().addFirst(source);
+        }
+    }
+}
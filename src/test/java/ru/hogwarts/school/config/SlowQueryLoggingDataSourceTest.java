@@ -0,0 +1,88 @@
+package ru.hogwarts.school.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import ru.hogwarts.school.dto.SqlShapeStats;
+import ru.hogwarts.school.dto.SqlStatsReport;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SlowQueryLoggingDataSourceTest {
+
+    private SqlStatistics statistics;
+    private SlowQueryLoggingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DriverManagerDataSource h2 = new DriverManagerDataSource(
+                "jdbc:h2:mem:sql-stats-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        statistics = new SqlStatistics(2);
+        dataSource = new SlowQueryLoggingDataSource(h2, statistics, Duration.ZERO, 1.0);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table wizards (id int primary key, name varchar(50))");
+        }
+        statistics.reset();
+    }
+
+    @Test
+    void testAggregatesStatementsByShape() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement insert = connection.prepareStatement("insert into wizards values (?, ?)")) {
+                for (int i = 0; i < 3; i++) {
+                    insert.setInt(1, i);
+                    insert.setString(2, "Wizard_" + i);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeQuery("select name from wizards where id = 1").close();
+                statement.executeQuery("select name from wizards where id = 2").close();
+            }
+        }
+
+        SqlStatsReport report = statistics.report("count", 10);
+
+        assertThat(report.statements()).isEqualTo(3);
+        assertThat(report.top()).extracting(SqlShapeStats::sql, SqlShapeStats::count).containsExactly(
+                tuple("select name from wizards where id = ?", 2L),
+                tuple("insert into wizards values (?, ?)", 1L));
+        // Порог 0: медленным считается каждый запрос
+        assertThat(report.top()).allMatch(shape -> shape.slow() == shape.count());
+    }
+
+    @Test
+    void testCountsFailuresAndShapesAboveLimit() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            assertThatThrownBy(() -> statement.execute("select * from muggles")).isInstanceOf(SQLException.class);
+            statement.execute("select count(*) from wizards");
+            statement.execute("select max(id) from wizards");
+        }
+
+        SqlStatsReport report = statistics.report("errors", 10);
+
+        assertThat(report.statements()).isEqualTo(3);
+        assertThat(report.shapes()).isEqualTo(2);
+        assertThat(report.untracked()).isEqualTo(1);
+        assertThat(report.top().get(0).sql()).isEqualTo("select * from muggles");
+        assertThat(report.top().get(0).errors()).isEqualTo(1);
+    }
+
+    @Test
+    void testUnwrapsToProxy() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isWrapperFor(Connection.class)).isTrue();
+            assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package ru.hogwarts.school.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlShapesTest {
+
+    @Test
+    void testReplacesLiteralsAndCollapsesWhitespace() {
+        String sql = "select s.id,\n       s.name from students s\n where s.name = 'O''Brien' and s.age > 17 -- adults\n";
+
+        assertThat(SqlShapes.normalize(sql)).isEqualTo("select s.id, s.name from students s where s.name = ? and s.age > ?");
+    }
+
+    @Test
+    void testKeepsIdentifiersWithDigitsAndQuotedNames() {
+        String sql = "select nextval('students_seq'), t2.\"Column1\" from t2 /* hint */ limit 50";
+
+        assertThat(SqlShapes.normalize(sql)).isEqualTo("select nextval(?), t2.\"Column1\" from t2 limit ?");
+    }
+
+    @Test
+    void testCollapsesInLists() {
+        assertThat(SqlShapes.normalize("delete from students where id in (?, ?, ?)"))
+                .isEqualTo(SqlShapes.normalize("delete from students where id IN (1,2)"))
+                .isEqualTo("delete from students where id in (?)");
+    }
+}
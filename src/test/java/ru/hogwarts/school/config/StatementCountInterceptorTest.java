@@ -0,0 +1,57 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementCountInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementCountInterceptor interceptor = new StatementCountInterceptor(registry);
+    private final RequestStatementCounter counter = new RequestStatementCounter();
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestStatementCounter.stop();
+    }
+
+    @Test
+    void testAsyncHandlerDoesNotLeakCounterToNextRequest() {
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/student");
+        interceptor.preHandle(streaming, response, new Object());
+        counter.inspect("select 1");
+        interceptor.afterConcurrentHandlingStarted(streaming, response, new Object());
+
+        // Следующий запрос на том же потоке не начинал счёт: его запросы не считаются чужому
+        counter.inspect("select 2");
+        assertThat(RequestStatementCounter.stop()).isZero();
+        assertThat(summary().count()).isEqualTo(1);
+        assertThat(summary().totalAmount()).isEqualTo(1);
+    }
+
+    @Test
+    void testAsyncDispatchIsNotCountedTwice() {
+        MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/student");
+        interceptor.preHandle(streaming, response, new Object());
+        interceptor.afterConcurrentHandlingStarted(streaming, response, new Object());
+
+        streaming.setDispatcherType(DispatcherType.ASYNC);
+        interceptor.preHandle(streaming, response, new Object());
+        counter.inspect("select 1");
+        interceptor.afterCompletion(streaming, response, new Object(), null);
+
+        assertThat(summary().count()).isEqualTo(1);
+        assertThat(summary().totalAmount()).isZero();
+    }
+
+    private DistributionSummary summary() {
+        return registry.get("school.http.statements").summary();
+    }
+}
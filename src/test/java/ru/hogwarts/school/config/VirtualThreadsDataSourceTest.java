@@ -0,0 +1,44 @@
+package ru.hogwarts.school.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * В режиме виртуальных потоков DataSource обёрнут и семафором, и логированием медленных запросов,
+ * независимо от порядка регистрации конфигураций. Режим включается только на Java 21+.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("h2")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsDataSourceTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testLimiterSitsInsideSlowQueryLogging() throws SQLException {
+        assertThat(dataSource).isInstanceOf(SlowQueryLoggingDataSource.class);
+        assertThat(dataSource.isWrapperFor(ConcurrencyLimitingDataSource.class)).isTrue();
+        assertThat(dataSource.unwrap(ConcurrencyLimitingDataSource.class).getMaxConcurrency()).isPositive();
+    }
+
+    @Test
+    void testLimiterGaugesAreRegistered() {
+        assertThat(meterRegistry.find("school.db.concurrency.available").gauge()).isNotNull();
+        assertThat(meterRegistry.find("school.db.concurrency.waiting").gauge()).isNotNull();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что метрики приложения публикуются в формате Prometheus без внешнего сервера.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+@ActiveProfiles("h2")
+public class TestActuatorPrometheus {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testPrometheusEndpointExposesApplicationMetrics() {
+        String baseUrl = "http://localhost:" + port;
+        Faculty faculty = restTemplate.postForEntity(
+                baseUrl + "/faculty", new Faculty("Metrics_" + System.nanoTime(), "Red"), Faculty.class).getBody();
+        restTemplate.getForEntity(baseUrl + "/faculty/" + faculty.getId(), Faculty.class);
+        restTemplate.getForEntity(baseUrl + "/student/age/17", Student[].class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/actuator/prometheus", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .contains("uri=\"/faculty/{id}\"")
+                .contains("spring_data_repository_invocations_seconds_bucket{")
+                .contains("school_service_seconds_bucket{")
+                .contains("method=\"getStudentsByAge\"")
+                .contains("school_http_statements{")
+                .contains("hikaricp_connections_active")
+                .contains("hibernate_statements_total")
+                .contains("hibernate_second_level_cache_requests_total")
+                .contains("jvm_gc_pause_seconds")
+                .contains("jvm_memory_used_bytes");
+    }
+}
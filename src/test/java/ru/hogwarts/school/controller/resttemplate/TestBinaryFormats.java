@@ -0,0 +1,114 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Двоичные форматы включены свойством; без Accept клиенты по-прежнему получают JSON.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "school.jackson.binary-formats.enabled=true")
+@ActiveProfiles("h2")
+public class TestBinaryFormats {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private String baseUrl;
+    private Faculty faculty;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/faculty";
+        faculty = facultyRepository.save(new Faculty("Binary_" + System.nanoTime(), "Indigo"));
+    }
+
+    @Test
+    void testBootModulesAndBlackbirdAreRegistered() {
+        assertThat(objectMapper.getRegisteredModuleIds())
+                .anyMatch(id -> id.toString().contains("BlackbirdModule"))
+                .anyMatch(id -> id.toString().contains("jsr310"))
+                .anyMatch(id -> id.toString().contains("KotlinModule"));
+    }
+
+    @Test
+    void testSmileIsNegotiatedByAccept() throws Exception {
+        ResponseEntity<byte[]> response = get(SMILE);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(SMILE);
+        Faculty decoded = new ObjectMapper(new SmileFactory()).readValue(response.getBody(), Faculty.class);
+        assertThat(decoded.getName()).isEqualTo(faculty.getName());
+    }
+
+    @Test
+    void testCborIsNegotiatedByAccept() throws Exception {
+        ResponseEntity<byte[]> response = get(MediaType.APPLICATION_CBOR);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        Faculty decoded = new ObjectMapper(new CBORFactory()).readValue(response.getBody(), Faculty.class);
+        assertThat(decoded.getColor()).isEqualTo("Indigo");
+    }
+
+    @Test
+    void testJsonRemainsDefault() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.ALL));
+        ResponseEntity<String> response = restTemplate.exchange(baseUrl + "/" + faculty.getId(), HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getHeaders().getContentType().isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(response.getBody()).contains("\"name\":\"" + faculty.getName() + "\"");
+    }
+
+    @Test
+    void testSmileRequestBodyIsAccepted() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(SMILE);
+        byte[] body = new ObjectMapper(new SmileFactory())
+                .writeValueAsBytes(new Faculty("Binary_post_" + System.nanoTime(), "Teal"));
+
+        ResponseEntity<Faculty> response = restTemplate.exchange(baseUrl, HttpMethod.POST,
+                new HttpEntity<>(body, headers), Faculty.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody().getColor()).isEqualTo("Teal");
+    }
+
+    private ResponseEntity<byte[]> get(MediaType accept) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(accept));
+        return restTemplate.exchange(baseUrl + "/" + faculty.getId(), HttpMethod.GET, new HttpEntity<>(headers),
+                byte[].class);
+    }
+}
@@ -0,0 +1,216 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.ChangeEventView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.ChangeEventRepository;
+import ru.hogwarts.school.service.ChangeEventRelay;
+import ru.hogwarts.school.service.InMemoryChangeEventSink;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Изменения попадают в outbox в транзакции изменения и отдаются лентой /changes
+ * после публикации ретранслятором (в профиле h2 он запускается из теста).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestChangeFeed {
+
+    private static final ParameterizedTypeReference<List<ChangeEventView>> CHANGES = new ParameterizedTypeReference<>() {
+    };
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ChangeEventRelay relay;
+
+    @Autowired
+    private ChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private InMemoryChangeEventSink sink;
+
+    private String baseUrl;
+    private long cursor;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        relay.relay();
+        cursor = changeEventRepository.findLastPosition();
+    }
+
+    @Test
+    void testMutationsArePublishedInOrder() {
+        Faculty faculty = restTemplate.postForObject(baseUrl + "/faculty",
+                new Faculty("Outbox_" + System.nanoTime(), "Blue"), Faculty.class);
+        Student student = restTemplate.postForObject(baseUrl + "/student", new Student("Luna", 12), Student.class);
+        restTemplate.put(baseUrl + "/student/" + student.getId() + "/faculty/" + faculty.getId(), faculty);
+        restTemplate.delete(baseUrl + "/faculty/" + faculty.getId());
+
+        assertThat(changes(cursor).getBody()).isEmpty();
+        assertThat(relay.relay()).isEqualTo(5);
+
+        ResponseEntity<List<ChangeEventView>> response = changes(cursor);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .extracting(ChangeEventView::entityType, ChangeEventView::entityId, ChangeEventView::operation)
+                .containsExactly(
+                        tuple("FACULTY", faculty.getId(), "CREATED"),
+                        tuple("STUDENT", student.getId(), "CREATED"),
+                        tuple("STUDENT", student.getId(), "UPDATED"),
+                        tuple("STUDENT", student.getId(), "DELETED"),
+                        tuple("FACULTY", faculty.getId(), "DELETED"));
+        assertThat(response.getBody()).extracting(ChangeEventView::position)
+                .containsExactly(cursor + 1, cursor + 2, cursor + 3, cursor + 4, cursor + 5);
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isEqualTo(Long.toString(cursor + 5));
+        assertThat(sink.recent()).endsWith(response.getBody().toArray(ChangeEventView[]::new));
+
+        assertThat(changes(cursor + 5).getBody()).isEmpty();
+    }
+
+    @Test
+    void testLongPollCompletesOnPublish() throws Exception {
+        CompletableFuture<ResponseEntity<List<ChangeEventView>>> poll = CompletableFuture.supplyAsync(() ->
+                restTemplate.exchange(baseUrl + "/changes?since=" + cursor + "&wait=30", HttpMethod.GET, null, CHANGES));
+        Thread.sleep(300);
+        assertThat(poll).isNotDone();
+
+        Faculty faculty = restTemplate.postForObject(baseUrl + "/faculty",
+                new Faculty("LongPoll_" + System.nanoTime(), "Green"), Faculty.class);
+        relay.relay();
+
+        ResponseEntity<List<ChangeEventView>> response = poll.get(10, TimeUnit.SECONDS);
+        assertThat(response.getBody())
+                .extracting(ChangeEventView::entityId, ChangeEventView::operation)
+                .containsExactly(tuple(faculty.getId(), "CREATED"));
+    }
+
+    @Test
+    void testLongPollTimesOutWithEmptyPage() {
+        ResponseEntity<List<ChangeEventView>> response = restTemplate.exchange(
+                baseUrl + "/changes?since=" + cursor + "&wait=1", HttpMethod.GET, null, CHANGES);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEmpty();
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isEqualTo(Long.toString(cursor));
+    }
+
+    @Test
+    void testServerSentEventsStreamPublishedChanges() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/changes?since=" + cursor))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<InputStream> response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+
+        Faculty faculty = restTemplate.postForObject(baseUrl + "/faculty",
+                new Faculty("Sse_" + System.nanoTime(), "Yellow"), Faculty.class);
+        relay.relay();
+
+        CompletableFuture<String> firstEvent = CompletableFuture.supplyAsync(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                StringBuilder event = new StringBuilder();
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.isEmpty()) {
+                        if (event.indexOf("data:") >= 0) {
+                            return event.toString();
+                        }
+                        event.setLength(0);
+                        continue;
+                    }
+                    event.append(line).append('\n');
+                }
+                return event.toString();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        String event = firstEvent.get(10, TimeUnit.SECONDS);
+        assertThat(event)
+                .contains("id:" + (cursor + 1))
+                .contains("event:change")
+                .contains("\"entityId\":" + faculty.getId())
+                .contains("\"operation\":\"CREATED\"");
+    }
+
+    @Test
+    void testPositionsContinueAfterFullPurge() {
+        restTemplate.postForObject(baseUrl + "/faculty", new Faculty("Purge_" + System.nanoTime(), "Red"), Faculty.class);
+        restTemplate.postForObject(baseUrl + "/faculty", new Faculty("Purge_" + System.nanoTime(), "Red"), Faculty.class);
+        relay.relay();
+        long last = changeEventRepository.findLastPosition();
+
+        relay.purge(Instant.now().plusSeconds(60));
+        assertThat(changeEventRepository.findFirstPosition()).isEqualTo(last);
+        assertThat(changeEventRepository.findLastPosition()).isEqualTo(last);
+
+        Faculty faculty = restTemplate.postForObject(baseUrl + "/faculty",
+                new Faculty("AfterPurge_" + System.nanoTime(), "Red"), Faculty.class);
+        relay.relay();
+
+        assertThat(changes(last).getBody())
+                .extracting(ChangeEventView::position, ChangeEventView::entityId)
+                .containsExactly(tuple(last + 1, faculty.getId()));
+    }
+
+    @Test
+    void testCursorBehindRetentionIsGone() {
+        restTemplate.postForObject(baseUrl + "/faculty", new Faculty("Gone_" + System.nanoTime(), "Red"), Faculty.class);
+        restTemplate.postForObject(baseUrl + "/faculty", new Faculty("Gone_" + System.nanoTime(), "Red"), Faculty.class);
+        relay.relay();
+        long last = changeEventRepository.findLastPosition();
+        relay.purge(Instant.now().plusSeconds(60));
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "/changes?since=" + (last - 2), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.GONE);
+        assertThat(response.getBody()).contains("\"lastPosition\":" + last);
+        assertThat(changes(last - 1).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void testInvalidWaitIsRejected() {
+        ResponseEntity<String> response = restTemplate.getForEntity(baseUrl + "/changes?wait=61", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<List<ChangeEventView>> changes(long since) {
+        return restTemplate.exchange(baseUrl + "/changes?since=" + since, HttpMethod.GET, null, CHANGES);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.StudentService;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сжатие ответов и h2c на встроенном Tomcat. Запросы идут через java.net.http.HttpClient:
+ * он не распаковывает gzip сам, поэтому видно, что именно пришло по сети.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestCompression {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String baseUrl;
+    private Student student;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            students.add(new Student("Compressed_" + i, 11 + i % 7));
+        }
+        studentService.createStudents(students);
+        student = studentService.createStudent(new Student("Small", 12));
+    }
+
+    @Test
+    void testLargeListIsGzipped() throws Exception {
+        HttpResponse<byte[]> plain = get(HttpClient.Version.HTTP_1_1, "/student", "identity");
+        HttpResponse<byte[]> gzipped = get(HttpClient.Version.HTTP_1_1, "/student", "gzip");
+
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzipped.headers().allValues("Vary")).anyMatch(vary -> vary.equalsIgnoreCase("accept-encoding"));
+        assertThat(gzipped.body().length).isLessThan(plain.body().length / 3);
+
+        byte[] unpacked;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.body()))) {
+            unpacked = in.readAllBytes();
+        }
+        JsonNode students = objectMapper.readTree(unpacked);
+        assertThat(students.size()).isGreaterThanOrEqualTo(101);
+    }
+
+    @Test
+    void testSmallResponseIsNotCompressed() throws Exception {
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_1_1, "/student/" + student.getId(), "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    @Test
+    void testHttp2Cleartext() throws Exception {
+        HttpResponse<byte[]> response = get(HttpClient.Version.HTTP_2, "/student", "gzip");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.version()).isEqualTo(HttpClient.Version.HTTP_2);
+        assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+    }
+
+    private HttpResponse<byte[]> get(HttpClient.Version version, String path, String acceptEncoding) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(version).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", "application/json")
+                .header("Accept-Encoding", acceptEncoding)
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,116 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ETag по @Version: 304 на If-None-Match без загрузки сущности, 412 на устаревший If-Match.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestConditionalRequests {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String baseUrl;
+    private Faculty faculty;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/faculty";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        faculty = facultyRepository.save(new Faculty("Conditional_" + System.nanoTime(), "Silver"));
+    }
+
+    @Test
+    void testIfNoneMatchUsesVersionQueryOnly() {
+        String etag = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class)
+                .getHeaders().getETag();
+        assertThat(etag).isEqualTo("\"" + faculty.getId() + "-0\"");
+
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+        ResponseEntity<Faculty> response = exchange(HttpMethod.GET, "/" + faculty.getId(),
+                HttpHeaders.IF_NONE_MATCH, etag, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void testIfMatchGuardsUpdates() {
+        String etag = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class)
+                .getHeaders().getETag();
+
+        ResponseEntity<Faculty> updated = exchange(HttpMethod.PUT, "/" + faculty.getId(),
+                HttpHeaders.IF_MATCH, etag, new Faculty(null, "Gold"));
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(updated.getBody().getColor()).isEqualTo("Gold");
+        assertThat(updated.getHeaders().getETag()).isEqualTo("\"" + faculty.getId() + "-1\"");
+
+        ResponseEntity<Faculty> stale = exchange(HttpMethod.PUT, "/" + faculty.getId(),
+                HttpHeaders.IF_MATCH, etag, new Faculty(null, "Bronze"));
+        assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(facultyRepository.findById(faculty.getId()).orElseThrow().getColor()).isEqualTo("Gold");
+
+        ResponseEntity<Faculty> afterUpdate = exchange(HttpMethod.GET, "/" + faculty.getId(),
+                HttpHeaders.IF_NONE_MATCH, etag, null);
+        assertThat(afterUpdate.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterUpdate.getHeaders().getETag()).isEqualTo(updated.getHeaders().getETag());
+    }
+
+    @Test
+    void testCollectionETagFollowsChanges() {
+        String etag = restTemplate.getForEntity(baseUrl, String.class).getHeaders().getETag();
+
+        // ETag, посчитанный по телу ответа, совпадает с отметкой из агрегатного запроса
+        assertThat(exchange(HttpMethod.GET, "", HttpHeaders.IF_NONE_MATCH, etag, null, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        exchange(HttpMethod.PUT, "/" + faculty.getId(), HttpHeaders.IF_MATCH, "*", new Faculty(null, "Copper"));
+
+        ResponseEntity<String> changed = exchange(HttpMethod.GET, "", HttpHeaders.IF_NONE_MATCH, etag, null, String.class);
+        assertThat(changed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    private ResponseEntity<Faculty> exchange(HttpMethod method, String path, String header, String value, Faculty body) {
+        return exchange(method, path, header, value, body, Faculty.class);
+    }
+
+    private <T> ResponseEntity<T> exchange(HttpMethod method, String path, String header, String value,
+                                           Faculty body, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(header, value);
+        return restTemplate.exchange(baseUrl + path, method, new HttpEntity<>(body, headers), responseType);
+    }
+}
@@ -0,0 +1,168 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.ExportResult;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestExport {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${school.export.dir}")
+    private Path exportDirectory;
+
+    private String baseUrl;
+    private Faculty faculty;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        faculty = facultyRepository.save(new Faculty("Export_" + System.nanoTime(), "Bronze, \"old\""));
+    }
+
+    @Test
+    void testCsvExportWithSelectedColumns() {
+        Student student = new Student("Export, Student", 13);
+        student.setFaculty(faculty);
+        student = studentRepository.save(student);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "/student/export?columns=id,name,faculty_id", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).startsWith("text/csv");
+        assertThat(response.getHeaders().getContentDisposition().getFilename()).isEqualTo("students.csv");
+        List<String> lines = response.getBody().lines().toList();
+        assertThat(lines.get(0)).isEqualTo("id,name,faculty_id");
+        assertThat(lines).hasSize((int) studentRepository.count() + 1)
+                .contains(student.getId() + ",\"Export, Student\"," + faculty.getId());
+    }
+
+    @Test
+    void testGzipNdjsonExport() throws Exception {
+        ResponseEntity<byte[]> response = restTemplate.getForEntity(
+                baseUrl + "/faculty/export?format=ndjson&gzip=true", byte[].class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/gzip");
+        List<String> lines;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+        assertThat(lines).hasSize((int) facultyRepository.count());
+        JsonNode exported = null;
+        for (String line : lines) {
+            JsonNode node = objectMapper.readTree(line);
+            if (node.get("id").asLong() == faculty.getId()) {
+                exported = node;
+            }
+        }
+        assertThat(exported).isNotNull();
+        assertThat(exported.get("name").asText()).isEqualTo(faculty.getName());
+        assertThat(exported.get("color").asText()).isEqualTo("Bronze, \"old\"");
+        assertThat(exported.get("version").isNumber()).isTrue();
+    }
+
+    // NDJSON-ответ держит соединение до конца скачивания, поэтому берёт его из пула выгрузок
+    @Test
+    void testNdjsonListReadsFromExportPool() throws Exception {
+        Student student = new Student("Export_Ndjson", 14);
+        student.setFaculty(faculty);
+        student = studentRepository.save(student);
+        long acquiredBefore = exportPoolAcquisitions();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/student", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_NDJSON);
+        List<StudentView> students = new ArrayList<>();
+        for (String line : response.getBody().lines().toList()) {
+            students.add(objectMapper.readValue(line, StudentView.class));
+        }
+        assertThat(students).hasSize((int) studentRepository.count())
+                .contains(new StudentView(student.getId(), "Export_Ndjson", 14, student.getVersion(), faculty.getId()));
+        assertThat(students).extracting(StudentView::id).isSorted();
+        assertThat(exportPoolAcquisitions()).isGreaterThan(acquiredBefore);
+    }
+
+    @Test
+    void testExportToFile() throws Exception {
+        ResponseEntity<ExportResult> response = restTemplate.postForEntity(
+                baseUrl + "/faculty/export/file?columns=color,name", null, ExportResult.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        ExportResult result = response.getBody();
+        assertThat(result.table()).isEqualTo("faculties");
+        assertThat(result.rows()).isEqualTo(facultyRepository.count());
+        Path file = exportDirectory.resolve(result.file());
+        assertThat(Files.size(file)).isEqualTo(result.bytes());
+        assertThat(Files.readAllLines(file)).first().isEqualTo("color,name");
+        assertThat(Files.readAllLines(file)).contains("\"Bronze, \"\"old\"\"\"," + faculty.getName());
+        Files.delete(file);
+    }
+
+    @Test
+    void testInvalidParametersAreRejected() {
+        assertThat(restTemplate.getForEntity(baseUrl + "/student/export?columns=name,password", String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(restTemplate.getForEntity(baseUrl + "/faculty/export?format=parquet", String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private long exportPoolAcquisitions() {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", "export").timer();
+        return acquire != null ? acquire.count() : 0;
+    }
+}
@@ -0,0 +1,174 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestFacultyControllerBatch {
+
+    // Больше размера JDBC-пакета, чтобы проверить сброс persistence context между пакетами
+    private static final int FACULTIES = 120;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private String baseUrl;
+    // Имена факультетов уникальны во всей БД, а контекст и БД общие для всех тестов
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        this.baseUrl = "http://localhost:" + port + "/faculty/batch";
+        this.prefix = "Batch_" + System.nanoTime() + "_";
+    }
+
+    @Test
+    void testBatchCreateUpdateDelete() {
+        List<Faculty> faculties = new ArrayList<>();
+        for (int i = 0; i < FACULTIES; i++) {
+            faculties.add(new Faculty(prefix + i, "Color_" + i % 4));
+        }
+
+        List<BatchItemResult> created = exchange(HttpMethod.POST, faculties);
+        assertThat(created).hasSize(FACULTIES)
+                .allMatch(result -> result.status() == BatchItemResult.Status.CREATED && result.id() != null);
+
+        List<Faculty> updates = new ArrayList<>();
+        for (BatchItemResult result : created) {
+            Faculty update = new Faculty(prefix + "updated_" + result.index(), null);
+            update.setId(result.id());
+            updates.add(update);
+        }
+        Faculty missing = new Faculty(prefix + "missing", "Black");
+        missing.setId(Long.MAX_VALUE);
+        updates.add(missing);
+
+        List<BatchItemResult> updated = exchange(HttpMethod.PUT, updates);
+        assertThat(updated.subList(0, FACULTIES)).allMatch(result -> result.status() == BatchItemResult.Status.UPDATED);
+        assertThat(updated.get(FACULTIES).status()).isEqualTo(BatchItemResult.Status.NOT_FOUND);
+
+        Faculty first = facultyRepository.findById(created.get(0).id()).orElseThrow();
+        assertThat(first.getName()).isEqualTo(prefix + "updated_0");
+        assertThat(first.getColor()).isEqualTo("Color_0");
+
+        // Студенты удаляются вместе с факультетом
+        Student student = new Student(prefix + "student", 12);
+        student.setFaculty(first);
+        student = studentRepository.save(student);
+
+        List<Long> ids = new ArrayList<>(created.stream().map(BatchItemResult::id).toList());
+        ids.add(Long.MAX_VALUE);
+        List<BatchItemResult> deleted = exchange(HttpMethod.DELETE, ids);
+        assertThat(deleted.subList(0, FACULTIES)).allMatch(result -> result.status() == BatchItemResult.Status.DELETED);
+        assertThat(deleted.get(FACULTIES).status()).isEqualTo(BatchItemResult.Status.NOT_FOUND);
+        assertThat(facultyRepository.findAllById(ids)).isEmpty();
+        assertThat(studentRepository.findById(student.getId())).isEmpty();
+    }
+
+    @Test
+    void testBatchCreateReportsDuplicateNames() {
+        Faculty existing = facultyRepository.save(new Faculty(prefix + "existing", "Red"));
+
+        List<BatchItemResult> results = exchange(HttpMethod.POST, List.of(
+                new Faculty(prefix + "new", "Green"),
+                new Faculty(existing.getName(), "Blue"),
+                new Faculty(prefix + "new", "Yellow"),
+                new Faculty(prefix + "no_color", null)));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(
+                BatchItemResult.Status.CREATED, BatchItemResult.Status.INVALID,
+                BatchItemResult.Status.INVALID, BatchItemResult.Status.INVALID);
+        assertThat(results.get(1).error()).isEqualTo("Faculty name already exists");
+        assertThat(results.get(2).error()).isEqualTo("Faculty name already exists");
+        // Отклонённые элементы не откатывают остальные
+        assertThat(facultyRepository.findById(results.get(0).id()).orElseThrow().getColor()).isEqualTo("Green");
+        assertThat(facultyRepository.findById(existing.getId()).orElseThrow().getColor()).isEqualTo("Red");
+        assertThat(facultyRepository.findByName(prefix + "no_color")).isNull();
+    }
+
+    @Test
+    void testBatchUpdateReportsDuplicateNames() {
+        List<BatchItemResult> created = exchange(HttpMethod.POST, List.of(
+                new Faculty(prefix + "a", "Red"), new Faculty(prefix + "b", "Green"),
+                new Faculty(prefix + "c", "Blue"), new Faculty(prefix + "d", "Yellow")));
+        Faculty takenName = new Faculty(prefix + "b", null);
+        takenName.setId(created.get(0).id());
+        Faculty renamed = new Faculty(prefix + "e", "Black");
+        renamed.setId(created.get(2).id());
+        Faculty sameNameInBatch = new Faculty(prefix + "e", "White");
+        sameNameInBatch.setId(created.get(3).id());
+        Faculty noId = new Faculty(prefix + "f", "Grey");
+
+        List<BatchItemResult> results = exchange(HttpMethod.PUT, List.of(takenName, renamed, sameNameInBatch, noId));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(
+                BatchItemResult.Status.INVALID, BatchItemResult.Status.UPDATED,
+                BatchItemResult.Status.INVALID, BatchItemResult.Status.INVALID);
+        assertThat(facultyRepository.findById(created.get(0).id()).orElseThrow().getName()).isEqualTo(prefix + "a");
+        assertThat(facultyRepository.findById(created.get(2).id()).orElseThrow().getName()).isEqualTo(prefix + "e");
+        Faculty untouched = facultyRepository.findById(created.get(3).id()).orElseThrow();
+        assertThat(untouched.getName()).isEqualTo(prefix + "d");
+        assertThat(untouched.getColor()).isEqualTo("Yellow");
+    }
+
+    @Test
+    void testBatchKeepsOwnNameOnUpdate() {
+        List<BatchItemResult> created = exchange(HttpMethod.POST, List.of(new Faculty(prefix + "same", "Red")));
+        Faculty sameName = new Faculty(prefix + "same", "Green");
+        sameName.setId(created.get(0).id());
+
+        List<BatchItemResult> results = exchange(HttpMethod.PUT, List.of(sameName));
+
+        assertThat(results.get(0).status()).isEqualTo(BatchItemResult.Status.UPDATED);
+        assertThat(facultyRepository.findById(created.get(0).id()).orElseThrow().getColor()).isEqualTo("Green");
+    }
+
+    @Test
+    void testEmptyBatchRejected() {
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl, HttpMethod.POST, new HttpEntity<>(List.of()), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private List<BatchItemResult> exchange(HttpMethod method, Object body) {
+        ResponseEntity<List<BatchItemResult>> response = restTemplate.exchange(
+                baseUrl,
+                method,
+                new HttpEntity<>(body),
+                new ParameterizedTypeReference<List<BatchItemResult>>() {}
+        );
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
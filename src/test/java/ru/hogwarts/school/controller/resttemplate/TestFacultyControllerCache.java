@@ -0,0 +1,119 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет второй уровень кэша и query cache для факультетов:
+ * повторное чтение не ходит в БД, а изменения сбрасывают закэшированные данные.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestFacultyControllerCache {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String baseUrl;
+    private String color;
+    private Faculty faculty;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/faculty";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        color = "Color_" + System.nanoTime();
+        faculty = facultyRepository.save(new Faculty("Ravenclaw_" + System.nanoTime(), color));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetFacultyIsServedFromSecondLevelCache() {
+        restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        ResponseEntity<Faculty> response = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getName()).isEqualTo(faculty.getName());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+    }
+
+    @Test
+    void testUpdateFacultyRefreshesCachedEntity() {
+        restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+
+        Faculty update = new Faculty(null, "Bronze");
+        restTemplate.exchange(baseUrl + "/" + faculty.getId(), HttpMethod.PUT, new HttpEntity<>(update), Faculty.class);
+
+        ResponseEntity<Faculty> response = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+
+        assertThat(response.getBody().getColor()).isEqualTo("Bronze");
+        assertThat(response.getBody().getVersion()).isEqualTo(faculty.getVersion() + 1);
+    }
+
+    @Test
+    void testDeleteFacultyEvictsCachedEntity() {
+        restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+
+        restTemplate.delete(baseUrl + "/" + faculty.getId());
+
+        ResponseEntity<Faculty> response = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void testFacultiesByColorUseQueryCacheUntilTableChanges() {
+        getFacultiesByColor();
+        getFacultiesByColor();
+
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        restTemplate.postForEntity(baseUrl, new Faculty("Hufflepuff_" + System.nanoTime(), color), Faculty.class);
+
+        List<Faculty> faculties = getFacultiesByColor();
+        assertThat(faculties).hasSize(2);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    private List<Faculty> getFacultiesByColor() {
+        return restTemplate.exchange(
+                baseUrl + "/color/" + color,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Faculty>>() {}
+        ).getBody();
+    }
+}
@@ -0,0 +1,138 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет число SQL-запросов на эндпоинтах факультета по статистике Hibernate:
+ * чтение факультета не должно инициализировать коллекцию студентов,
+ * списки отдаются проекциями, без загрузки сущностей, а число студентов — из счётчика в памяти.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestFacultyControllerStatements {
+
+    private static final int STUDENTS = 5;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String baseUrl;
+    private Faculty faculty;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/faculty";
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        faculty = facultyRepository.save(new Faculty("Gryffindor_" + System.nanoTime(), "Red"));
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student("Student_" + i, 11 + i);
+            student.setFaculty(faculty);
+            studentRepository.save(student);
+        }
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetFacultyDoesNotLoadStudents() {
+        ResponseEntity<Faculty> response = restTemplate.getForEntity(baseUrl + "/" + faculty.getId(), Faculty.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void testGetAllFacultiesDoesNotLoadStudents() {
+        ResponseEntity<List<Faculty>> response = restTemplate.exchange(
+                baseUrl,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Faculty>>() {}
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void testGetFacultyStudentsUsesSingleStatement() {
+        ResponseEntity<List<Student>> response = restTemplate.exchange(
+                baseUrl + "/" + faculty.getId() + "/students",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Student>>() {}
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(STUDENTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void testGetFacultyStudentsPageUsesSingleStatement() {
+        ResponseEntity<List<Student>> response = restTemplate.exchange(
+                baseUrl + "/" + faculty.getId() + "/students?limit=2",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<List<Student>>() {}
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(2);
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor")).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetFacultyStudentCountIsServedFromCounter() {
+        ResponseEntity<Long> response = restTemplate.getForEntity(
+                baseUrl + "/" + faculty.getId() + "/students/count",
+                Long.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(STUDENTS);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+}
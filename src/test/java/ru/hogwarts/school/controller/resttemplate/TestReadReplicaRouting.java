@@ -0,0 +1,158 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.config.ReplicaRoutingDataSource;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Student;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Реплики — две отдельные базы H2 с той же схемой, но своими данными: по тому, чьи строки
+ * вернул запрос, видно, куда он был направлен. Отставание задаёт таблица replica_lag.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "school.datasource.replica.urls=" + TestReadReplicaRouting.REPLICA_1 + "," + TestReadReplicaRouting.REPLICA_2,
+        "school.datasource.replica.lag-query=select lag_seconds from replica_lag",
+        "school.datasource.replica.max-lag=PT10S",
+        "school.datasource.replica.check-interval=PT1H",
+        "school.datasource.replica.sticky-window=PT5S"
+})
+@ActiveProfiles("h2")
+public class TestReadReplicaRouting {
+
+    static final String REPLICA_1 = "jdbc:h2:mem:replica1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:replica2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+    private static final String MARKER = "Rplc";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private String baseUrl;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeAll
+    static void createReplicas() throws SQLException {
+        createReplica(REPLICA_1, MARKER + "_Replica1");
+        createReplica(REPLICA_2, MARKER + "_Replica2");
+    }
+
+    private static void createReplica(String url, String studentName) throws SQLException {
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/common").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists replica_lag (lag_seconds double precision)");
+            statement.execute("delete from replica_lag");
+            statement.execute("insert into replica_lag values (0)");
+            statement.execute("delete from students");
+            statement.execute("insert into students (id, name, age, version) values (1, '" + studentName + "', 12, 0)");
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        baseUrl = "http://localhost:" + port + "/student";
+        routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        routing.checkReplicas();
+    }
+
+    @AfterEach
+    void restoreReplicas() throws SQLException {
+        setLag(REPLICA_1, 0);
+        setLag(REPLICA_2, 0);
+        routing.checkReplicas();
+    }
+
+    @Test
+    void testReadsAreSpreadOverReplicas() {
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            seen.addAll(search(null));
+        }
+
+        assertThat(seen).containsExactlyInAnyOrder(MARKER + "_Replica1", MARKER + "_Replica2");
+    }
+
+    @Test
+    void testClientReadsItsOwnWriteFromPrimary() {
+        Student student = new Student(MARKER + "_Primary", 13);
+        ResponseEntity<Student> created = restTemplate.postForEntity(baseUrl, student, Student.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        String cookie = created.getHeaders().getFirst(HttpHeaders.SET_COOKIE);
+        assertThat(cookie).startsWith("school-read-primary-until=");
+
+        // С cookie клиент видит свою запись, без неё чтение идёт на реплику, где записи ещё нет
+        assertThat(search(cookie.substring(0, cookie.indexOf(';')))).contains(MARKER + "_Primary");
+        assertThat(search(null)).doesNotContain(MARKER + "_Primary");
+    }
+
+    @Test
+    void testLaggingReplicaLeavesRotation() throws SQLException {
+        setLag(REPLICA_1, 60);
+        routing.checkReplicas();
+
+        assertThat(routing.getHealthyReplicas()).containsExactly("replica-2");
+        for (int i = 0; i < 4; i++) {
+            assertThat(search(null)).containsExactly(MARKER + "_Replica2");
+        }
+    }
+
+    @Test
+    void testReadsFallBackToPrimaryWithoutReplicas() throws SQLException {
+        restTemplate.postForEntity(baseUrl, new Student(MARKER + "_Fallback", 14), Student.class);
+        setLag(REPLICA_1, 60);
+        setLag(REPLICA_2, 60);
+        routing.checkReplicas();
+
+        assertThat(routing.getHealthyReplicas()).isEmpty();
+        assertThat(search(null)).contains(MARKER + "_Fallback").doesNotContain(MARKER + "_Replica1", MARKER + "_Replica2");
+    }
+
+    private List<String> search(String cookie) {
+        HttpHeaders headers = new HttpHeaders();
+        if (cookie != null) {
+            headers.add(HttpHeaders.COOKIE, cookie);
+        }
+        ResponseEntity<StudentView[]> response = restTemplate.exchange(baseUrl + "/search?name=" + MARKER,
+                HttpMethod.GET, new HttpEntity<>(headers), StudentView[].class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return Arrays.stream(response.getBody()).map(StudentView::name).toList();
+    }
+
+    private static void setLag(String url, double seconds) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("update replica_lag set lag_seconds = " + seconds);
+        }
+    }
+}
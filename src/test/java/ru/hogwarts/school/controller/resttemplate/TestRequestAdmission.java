@@ -0,0 +1,170 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Student;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Лимит запросов на клиента: после burst запросов маршрут отвечает 429 с Retry-After,
+ * не доходя до контроллера; другие клиенты и маршруты при этом не ограничены.
+ * Предел одновременных запросов: пока место занято незавершённым запросом, маршрут отвечает 503;
+ * асинхронный ответ место не держит.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "school.admission.enabled=true",
+        "school.admission.client-header=X-Client",
+        "school.admission.routes[0].route=GET /student/{id}",
+        "school.admission.routes[0].requests-per-second=0.1",
+        "school.admission.routes[0].burst=2",
+        "school.admission.routes[1].route=POST /student/batch",
+        "school.admission.routes[1].min-concurrency=1",
+        "school.admission.routes[1].max-concurrency=1",
+        "school.admission.routes[2].route=POST /student/import",
+        "school.admission.routes[2].min-concurrency=1",
+        "school.admission.routes[2].max-concurrency=1"
+})
+@ActiveProfiles("h2")
+public class TestRequestAdmission {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testRejectsClientOverLimitWithRetryAfter() {
+        Student student = restTemplate.postForObject(url("/student"), new Student("Admission_Student", 15), Student.class);
+
+        assertThat(get("/student/" + student.getId(), "client-a").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/student/" + student.getId(), "client-a").getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<String> rejected = get("/student/" + student.getId(), "client-a");
+
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(Long.parseLong(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))).isBetween(1L, 10L);
+        assertThat(rejected.getHeaders().getContentType().toString()).isEqualTo("application/problem+json");
+
+        // Лимит свой у каждого клиента и маршрута
+        assertThat(get("/student/" + student.getId(), "client-b").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(get("/student/age/15", "client-a").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        assertThat(meterRegistry.get("school.admission.requests")
+                .tags("route", "GET /student/{id}", "outcome", "rate_limited").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("school.admission.requests")
+                .tags("route", "GET /student/{id}", "outcome", "admitted").counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("school.admission.concurrency.in_flight")
+                .tags("route", "GET /student/{id}").gauge().value()).isZero();
+    }
+
+    // Пакет читает тело в обработчике, поэтому держит место, пока тело не дослано
+    @Test
+    void testShedsRequestsOverConcurrencyLimit() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /student/batch HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/json\r\n"
+                    + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            writeChunk(out, "[");
+            awaitInFlight("POST /student/batch", 1);
+
+            ResponseEntity<String> shed = restTemplate.postForEntity(url("/student/batch"),
+                    List.of(new Student("Admission_Shed", 12)), String.class);
+            assertThat(shed.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(shed.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+            assertThat(meterRegistry.get("school.admission.requests")
+                    .tags("route", "POST /student/batch", "outcome", "shed").counter().count()).isEqualTo(1);
+
+            writeChunk(out, "{\"name\":\"Admission_Held\",\"age\":12}]");
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertThat(in.readLine()).startsWith("HTTP/1.1 200");
+            awaitInFlight("POST /student/batch", 0);
+        }
+
+        assertThat(restTemplate.postForEntity(url("/student/batch"),
+                List.of(new Student("Admission_Admitted", 12)), String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    // Импорт отвечает 202 до конца загрузки и дочитывает тело асинхронно: место освобождается сразу
+    @Test
+    void testAsyncResponseDoesNotHoldConcurrencySlot() throws Exception {
+        HttpHeaders csv = new HttpHeaders();
+        csv.setContentType(MediaType.parseMediaType("text/csv"));
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /student/import HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                    + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            writeChunk(out, "name,age\n");
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertThat(in.readLine()).startsWith("HTTP/1.1 202");
+            awaitInFlight("POST /student/import", 0);
+
+            assertThat(restTemplate.postForEntity(url("/student/import"),
+                    new HttpEntity<>("name,age\nAdmission_Async,12\n", csv), String.class).getStatusCode())
+                    .isEqualTo(HttpStatus.ACCEPTED);
+
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+        assertThat(meterRegistry.get("school.admission.requests")
+                .tags("route", "POST /student/import", "outcome", "shed").counter().count()).isZero();
+    }
+
+    private void awaitInFlight(String route, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (inFlight(route) != expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(inFlight(route)).isEqualTo(expected);
+    }
+
+    private double inFlight(String route) {
+        var gauge = meterRegistry.find("school.admission.concurrency.in_flight").tags("route", route).gauge();
+        return gauge != null ? gauge.value() : 0;
+    }
+
+    private static void writeChunk(OutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.write((Integer.toHexString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private ResponseEntity<String> get(String path, String client) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Client", client);
+        return restTemplate.exchange(url(path), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
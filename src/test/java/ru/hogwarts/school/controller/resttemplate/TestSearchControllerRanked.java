@@ -0,0 +1,96 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestSearchControllerRanked {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    @Test
+    void testSearchStudentsByTypoAndPrefix() {
+        studentRepository.saveAll(List.of(
+                new Student("Neville Longbottom", 17),
+                new Student("Luna Lovegood", 16),
+                new Student("Harry Potter", 17)));
+
+        List<SearchHit<Student>> typo = search("/student/search/ranked?q=Longbotom", new ParameterizedTypeReference<>() {
+        });
+        assertThat(typo).extracting(hit -> hit.item().getName()).containsExactly("Neville Longbottom");
+
+        // Совпадение по префиксу ранжируется выше совпадения по слову в середине
+        studentRepository.save(new Student("Harriet Lovegood", 15));
+        List<SearchHit<Student>> prefix = search("/student/search/ranked?q=Luna", new ParameterizedTypeReference<>() {
+        });
+        assertThat(prefix).extracting(hit -> hit.item().getName()).first().isEqualTo("Luna Lovegood");
+        assertThat(prefix.get(0).score()).isGreaterThan(1.0);
+    }
+
+    @Test
+    void testSearchFacultiesByNameOrColor() {
+        facultyRepository.saveAll(List.of(
+                new Faculty("Gryffindor", "Scarlet"),
+                new Faculty("Ravenclaw", "Blue"),
+                new Faculty("Hufflepuff", "Yellow")));
+
+        List<SearchHit<Faculty>> byColor = search("/faculty/search/ranked?q=scarlett", new ParameterizedTypeReference<>() {
+        });
+        assertThat(byColor).extracting(hit -> hit.item().getName()).containsExactly("Gryffindor");
+
+        List<SearchHit<Faculty>> byPrefix = search("/faculty/search/ranked?q=rav&limit=1", new ParameterizedTypeReference<>() {
+        });
+        assertThat(byPrefix).extracting(hit -> hit.item().getName()).containsExactly("Ravenclaw");
+    }
+
+    @Test
+    void testSearchRejectsInvalidLimit() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                baseUrl + "/student/search/ranked?q=Harry&limit=0", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private <T> List<SearchHit<T>> search(String path, ParameterizedTypeReference<List<SearchHit<T>>> type) {
+        ResponseEntity<List<SearchHit<T>>> response = restTemplate.exchange(baseUrl + path, HttpMethod.GET, null, type);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
@@ -0,0 +1,54 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.SqlStatsReport;
+import ru.hogwarts.school.model.Student;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Статистика SQL по формам в /actuator/sqlstats: значения из запроса в неё не попадают.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestSqlStatsEndpoint {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void testReportsQueryShapesWithoutValues() {
+        String baseUrl = "http://localhost:" + port;
+        restTemplate.delete(baseUrl + "/actuator/sqlstats");
+        restTemplate.postForEntity(baseUrl + "/student", new Student("SqlStats_Secret", 15), Student.class);
+        restTemplate.getForEntity(baseUrl + "/student/search?name=SqlStats_Secret", String.class);
+
+        ResponseEntity<SqlStatsReport> response = restTemplate.getForEntity(
+                baseUrl + "/actuator/sqlstats?orderBy=count&limit=100", SqlStatsReport.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        SqlStatsReport report = response.getBody();
+        assertThat(report.statements()).isPositive();
+        assertThat(report.top()).isNotEmpty()
+                .anyMatch(shape -> shape.sql().startsWith("insert into students"))
+                .noneMatch(shape -> shape.sql().contains("SqlStats_Secret"));
+    }
+
+    @Test
+    void testRejectsUnknownOrder() {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://localhost:" + port + "/actuator/sqlstats?orderBy=name", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
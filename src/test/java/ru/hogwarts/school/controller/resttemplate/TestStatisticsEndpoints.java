@@ -0,0 +1,157 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.AgeBucket;
+import ru.hogwarts.school.dto.ColorStats;
+import ru.hogwarts.school.dto.FacultyStats;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+import ru.hogwarts.school.service.StatisticsCaches;
+import ru.hogwarts.school.service.WriteGeneration;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Статистика считается в БД, кэшируется и сбрасывается при изменении студентов.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestStatisticsEndpoints {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private WriteGeneration writeGeneration;
+
+    private Statistics statistics;
+    private String baseUrl;
+    private Faculty gryffindor;
+    private Faculty slytherin;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port;
+        studentRepository.deleteAll();
+        facultyRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        gryffindor = facultyRepository.save(new Faculty("Stats_Gryffindor", "Red"));
+        slytherin = facultyRepository.save(new Faculty("Stats_Slytherin", "Green"));
+        facultyRepository.save(new Faculty("Stats_Durmstrang", "Red"));
+        saveStudent("Harry Potter", 17, gryffindor);
+        saveStudent("Ron Weasley", 17, gryffindor);
+        saveStudent("Draco Malfoy", 15, slytherin);
+        saveStudent("Luna Lovegood", 14, null);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testStudentStats() {
+        StudentStats stats = restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class);
+
+        assertThat(stats).isEqualTo(new StudentStats(4, 15.75, 14, 17));
+        assertThat(getList("/student/stats/age-histogram", new ParameterizedTypeReference<List<AgeBucket>>() {
+        })).containsExactly(new AgeBucket(14, 1), new AgeBucket(15, 1), new AgeBucket(17, 2));
+    }
+
+    @Test
+    void testFacultyStats() {
+        List<FacultyStats> stats = getList("/faculty/stats", new ParameterizedTypeReference<>() {
+        });
+        assertThat(stats).extracting(FacultyStats::name, FacultyStats::studentCount, FacultyStats::averageAge)
+                .containsExactly(
+                        tuple("Stats_Gryffindor", 2L, 17.0),
+                        tuple("Stats_Slytherin", 1L, 15.0),
+                        tuple("Stats_Durmstrang", 0L, null));
+
+        List<ColorStats> colors = getList("/faculty/stats/colors", new ParameterizedTypeReference<>() {
+        });
+        assertThat(colors).containsExactly(
+                new ColorStats("Green", 1, 1, 15.0),
+                new ColorStats("Red", 2, 2, 17.0));
+    }
+
+    @Test
+    void testStatsAreCachedUntilStudentsChange() {
+        restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class);
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+
+        restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsAfterFirstRead);
+
+        Student neville = restTemplate.postForObject(baseUrl + "/student", new Student("Neville Longbottom", 16), Student.class);
+        assertThat(restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class).count()).isEqualTo(5);
+
+        restTemplate.exchange(baseUrl + "/student/" + neville.getId() + "/faculty/" + gryffindor.getId(),
+                HttpMethod.PUT, new HttpEntity<>(gryffindor), Student.class);
+        List<FacultyStats> stats = getList("/faculty/stats", new ParameterizedTypeReference<>() {
+        });
+        assertThat(stats.get(0).studentCount()).isEqualTo(3);
+
+        restTemplate.delete(baseUrl + "/student/" + neville.getId());
+        assertThat(restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class).count()).isEqualTo(4);
+    }
+
+    // Чтение, начатое до записи, кладёт старую статистику в кэш уже после сброса
+    @Test
+    void testStatsReadBeforeWriteAreNotServedAfterIt() {
+        long generationBeforeWrite = writeGeneration.current();
+        StudentStats before = restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class);
+        assertThat(cacheManager.getCache(StatisticsCaches.STUDENT_STATS).get(generationBeforeWrite)).isNotNull();
+
+        restTemplate.postForObject(baseUrl + "/student", new Student("Neville Longbottom", 16), Student.class);
+        cacheManager.getCache(StatisticsCaches.STUDENT_STATS).put(generationBeforeWrite, before);
+
+        assertThat(writeGeneration.current()).isGreaterThan(generationBeforeWrite);
+        assertThat(restTemplate.getForObject(baseUrl + "/student/stats", StudentStats.class).count()).isEqualTo(5);
+    }
+
+    private void saveStudent(String name, int age, Faculty faculty) {
+        Student student = new Student(name, age);
+        student.setFaculty(faculty);
+        studentRepository.save(student);
+    }
+
+    private <T> List<T> getList(String path, ParameterizedTypeReference<List<T>> type) {
+        ResponseEntity<List<T>> response = restTemplate.exchange(baseUrl + path, HttpMethod.GET, null, type);
+        return response.getBody();
+    }
+}
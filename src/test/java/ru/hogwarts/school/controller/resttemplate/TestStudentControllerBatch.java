@@ -0,0 +1,158 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class TestStudentControllerBatch {
+
+    // Больше размера JDBC-пакета, чтобы проверить сброс persistence context между пакетами
+    private static final int STUDENTS = 120;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        this.baseUrl = "http://localhost:" + port + "/student/batch";
+    }
+
+    @Test
+    void testBatchCreateUpdateDelete() {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(new Student("Batch_" + i, 11 + i % 7));
+        }
+
+        List<BatchItemResult> created = exchange(HttpMethod.POST, students);
+        assertThat(created).hasSize(STUDENTS)
+                .allMatch(result -> result.status() == BatchItemResult.Status.CREATED && result.id() != null);
+
+        List<Student> updates = new ArrayList<>();
+        for (BatchItemResult result : created) {
+            Student update = new Student("Batch_updated_" + result.index(), 0);
+            update.setId(result.id());
+            updates.add(update);
+        }
+        Student missing = new Student("Missing", 17);
+        missing.setId(Long.MAX_VALUE);
+        updates.add(missing);
+
+        List<BatchItemResult> updated = exchange(HttpMethod.PUT, updates);
+        assertThat(updated.subList(0, STUDENTS)).allMatch(result -> result.status() == BatchItemResult.Status.UPDATED);
+        assertThat(updated.get(STUDENTS).status()).isEqualTo(BatchItemResult.Status.NOT_FOUND);
+
+        Student first = studentRepository.findById(created.get(0).id()).orElseThrow();
+        assertThat(first.getName()).isEqualTo("Batch_updated_0");
+        assertThat(first.getAge()).isEqualTo(11);
+
+        List<Long> ids = created.stream().map(BatchItemResult::id).toList();
+        List<BatchItemResult> deleted = exchange(HttpMethod.DELETE, ids);
+        assertThat(deleted).allMatch(result -> result.status() == BatchItemResult.Status.DELETED);
+        assertThat(studentRepository.findAllById(ids)).isEmpty();
+    }
+
+    @Test
+    void testBatchCreateRejectsExistingId() {
+        Student withId = new Student("Has id", 17);
+        withId.setId(42L);
+
+        List<BatchItemResult> results = exchange(HttpMethod.POST, List.of(new Student("New", 17), withId));
+
+        assertThat(results.get(0).status()).isEqualTo(BatchItemResult.Status.CREATED);
+        assertThat(results.get(1).status()).isEqualTo(BatchItemResult.Status.INVALID);
+    }
+
+    @Test
+    void testBatchCreateReportsInvalidItems() {
+        List<BatchItemResult> results = exchange(HttpMethod.POST, List.of(
+                new Student("Batch_valid", 17), new Student(" ", 17), new Student("Batch_too_young", 0)));
+
+        assertThat(results.get(0).status()).isEqualTo(BatchItemResult.Status.CREATED);
+        assertThat(results.get(1).status()).isEqualTo(BatchItemResult.Status.INVALID);
+        assertThat(results.get(1).error()).startsWith("name:");
+        assertThat(results.get(2).status()).isEqualTo(BatchItemResult.Status.INVALID);
+        assertThat(results.get(2).error()).startsWith("age:");
+        assertThat(studentRepository.findById(results.get(0).id())).isPresent();
+    }
+
+    @Test
+    void testBatchUpdateReportsInvalidItems() {
+        List<BatchItemResult> created = exchange(HttpMethod.POST, List.of(
+                new Student("Batch_a", 15), new Student("Batch_b", 15), new Student("Batch_c", 15)));
+        Student blankName = new Student(" ", 0);
+        blankName.setId(created.get(0).id());
+        Student tooOld = new Student(null, 200);
+        tooOld.setId(created.get(1).id());
+        Student valid = new Student("Batch_c_updated", 16);
+        valid.setId(created.get(2).id());
+
+        List<BatchItemResult> results = exchange(HttpMethod.PUT, List.of(blankName, tooOld, valid));
+
+        assertThat(results).extracting(BatchItemResult::status).containsExactly(
+                BatchItemResult.Status.INVALID, BatchItemResult.Status.INVALID, BatchItemResult.Status.UPDATED);
+        assertThat(studentRepository.findById(created.get(0).id()).orElseThrow().getName()).isEqualTo("Batch_a");
+        assertThat(studentRepository.findById(created.get(1).id()).orElseThrow().getAge()).isEqualTo(15);
+        assertThat(studentRepository.findById(created.get(2).id()).orElseThrow().getName()).isEqualTo("Batch_c_updated");
+    }
+
+    @Test
+    void testSingleCreateAndUpdateRejectInvalidStudent() {
+        String studentUrl = "http://localhost:" + port + "/student";
+        ResponseEntity<ProblemDetail> created = restTemplate.postForEntity(
+                studentUrl, Map.of("name", "A", "age", 0), ProblemDetail.class);
+
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(created.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+        assertThat(created.getBody().getDetail()).isEqualTo("age: must be greater than 0");
+
+        Student student = restTemplate.postForObject(studentUrl, new Student("Batch_single", 15), Student.class);
+        ResponseEntity<ProblemDetail> updated = restTemplate.exchange(studentUrl + "/" + student.getId(),
+                HttpMethod.PUT, new HttpEntity<>(Map.of("name", " ")), ProblemDetail.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(updated.getBody().getDetail()).isEqualTo("name: must not be blank");
+        assertThat(studentRepository.findById(student.getId()).orElseThrow().getName()).isEqualTo("Batch_single");
+    }
+
+    private List<BatchItemResult> exchange(HttpMethod method, Object body) {
+        ResponseEntity<List<BatchItemResult>> response = restTemplate.exchange(
+                baseUrl,
+                method,
+                new HttpEntity<>(body),
+                new ParameterizedTypeReference<List<BatchItemResult>>() {}
+        );
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+}
@@ -0,0 +1,229 @@
+package ru.hogwarts.school.controller.resttemplate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.dto.ImportError;
+import ru.hogwarts.school.dto.ImportJobStatus;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Импорт отвечает 202 сразу, читает файл потоком и пишет строки пакетами в фоне;
+ * результат проверяется по адресу задания из Location.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "school.import.max-upload-duration=PT2S")
+@ActiveProfiles("h2")
+public class TestStudentImport {
+
+    // Несколько пакетов по school.import.chunk-size и неполный последний
+    private static final int VALID_ROWS = 1234;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    private String baseUrl;
+    private Faculty faculty;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/student/import";
+        faculty = facultyRepository.save(new Faculty("Import_" + System.nanoTime(), "Silver"));
+    }
+
+    @Test
+    void testCsvImport() throws Exception {
+        StringBuilder csv = new StringBuilder("name,age,faculty\n");
+        for (int i = 0; i < VALID_ROWS; i++) {
+            csv.append("\"Imported, ").append(i).append("\",").append(11 + i % 7).append(',')
+                    .append(faculty.getName()).append('\n');
+        }
+        csv.append(",12,\n")                            // строка VALID_ROWS + 2
+                .append("Too Old,400,\n")               // + 3
+                .append("Nameless,eleven,\n")           // + 4
+                .append("\n")
+                .append("Lost,12,No Such Faculty\n");   // + 6
+
+        ResponseEntity<ImportJobStatus> response = upload(csv.toString(), "text/csv");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getBody().format()).isEqualTo("CSV");
+
+        ImportJobStatus status = awaitCompletion(response.getHeaders().getLocation());
+        assertThat(status.state()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.rowsRead()).isEqualTo(VALID_ROWS + 4);
+        assertThat(status.imported()).isEqualTo(VALID_ROWS);
+        assertThat(status.rejected()).isEqualTo(4);
+        assertThat(status.errors()).extracting(ImportError::line, ImportError::message).containsExactly(
+                tuple(VALID_ROWS + 2L, "name: must not be blank"),
+                tuple(VALID_ROWS + 3L, "age: must be less than or equal to 150"),
+                tuple(VALID_ROWS + 4L, "age: not a number"),
+                tuple(VALID_ROWS + 6L, "faculty: unknown faculty 'No Such Faculty'"));
+        assertThat(studentRepository.countByFaculty_Id(faculty.getId())).isEqualTo(VALID_ROWS);
+    }
+
+    @Test
+    void testNdjsonImport() throws Exception {
+        String ndjson = "{\"name\":\"Json One\",\"age\":12,\"faculty\":\"" + faculty.getName() + "\"}\n"
+                + "{\"name\":\"Json Two\",\"age\":13,\"faculty\":\"" + faculty.getName() + "\",\"house\":\"ignored\"}\n"
+                + "{\"name\":\"Broken\"\n"
+                + "{\"name\":\"No Age\",\"faculty\":\"" + faculty.getName() + "\"}\n";
+
+        ResponseEntity<ImportJobStatus> response = upload(ndjson, MediaType.APPLICATION_NDJSON_VALUE);
+        ImportJobStatus status = awaitCompletion(response.getHeaders().getLocation());
+
+        assertThat(status.state()).isEqualTo(ImportJobStatus.State.COMPLETED);
+        assertThat(status.imported()).isEqualTo(2);
+        assertThat(status.errors()).extracting(ImportError::line).containsExactly(3L, 4L);
+        assertThat(status.errors().get(0).message()).startsWith("malformed JSON");
+        assertThat(status.errors().get(1).message()).isEqualTo("age: must not be null");
+        assertThat(studentRepository.countByFaculty_Id(faculty.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void testCsvWithoutRequiredColumnsIsRejected() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl,
+                new HttpEntity<>("first,last\nHarry,Potter\n", headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("CSV header must contain name and age columns");
+    }
+
+    // Тело отправляется частями через сокет: 202 и Location приходят, пока файл ещё не загружен до конца
+    @Test
+    void testAcceptedBeforeUploadFinishes() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /student/import HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                    + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            writeChunk(out, "name,age,faculty\nEarly One,12," + faculty.getName() + "\n");
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertThat(in.readLine()).startsWith("HTTP/1.1 202");
+            URI location = null;
+            for (String line = in.readLine(); !line.isEmpty(); line = in.readLine()) {
+                if (line.regionMatches(true, 0, "Location:", 0, 9)) {
+                    location = URI.create(line.substring(9).trim());
+                }
+            }
+            assertThat(location).isNotNull();
+
+            ImportJobStatus running = restTemplate.getForObject(location, ImportJobStatus.class);
+            assertThat(running.state()).isEqualTo(ImportJobStatus.State.RUNNING);
+
+            writeChunk(out, "Early Two,13," + faculty.getName() + "\n");
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+
+            ImportJobStatus status = awaitCompletion(location);
+            assertThat(status.state()).isEqualTo(ImportJobStatus.State.COMPLETED);
+            assertThat(status.imported()).isEqualTo(2);
+        }
+    }
+
+    // Загрузка дольше school.import.max-upload-duration: задание падает, а ответ завершается, не дожидаясь тела
+    @Test
+    void testUploadLongerThanMaxDurationFails() throws Exception {
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setSoTimeout(10_000);
+            OutputStream out = socket.getOutputStream();
+            out.write(("POST /student/import HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/csv\r\n"
+                    + "Transfer-Encoding: chunked\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            writeChunk(out, "name,age,faculty\nSlow One,12," + faculty.getName() + "\n");
+
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertThat(in.readLine()).startsWith("HTTP/1.1 202");
+            URI location = null;
+            for (String line = in.readLine(); !line.isEmpty(); line = in.readLine()) {
+                if (line.regionMatches(true, 0, "Location:", 0, 9)) {
+                    location = URI.create(line.substring(9).trim());
+                }
+            }
+            assertThat(location).isNotNull();
+
+            Thread.sleep(2500);
+            writeChunk(out, "Slow Two,13," + faculty.getName() + "\n");
+
+            ImportJobStatus status = awaitCompletion(location);
+            assertThat(status.state()).isEqualTo(ImportJobStatus.State.FAILED);
+            assertThat(status.errors()).extracting(ImportError::message)
+                    .anyMatch(message -> message.contains("max-upload-duration"));
+            // Ответ закрыт последним пустым блоком chunked-кодирования
+            String line = in.readLine();
+            while (line != null && !line.equals("0")) {
+                line = in.readLine();
+            }
+            assertThat(line).isEqualTo("0");
+        }
+    }
+
+    @Test
+    void testUnknownJobAndUnsupportedFormat() {
+        assertThat(restTemplate.getForEntity(baseUrl + "/missing", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_XML);
+        assertThat(restTemplate.postForEntity(baseUrl, new HttpEntity<>("<students/>", headers), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+    }
+
+    private static void writeChunk(OutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.write((Integer.toHexString(bytes.length) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private ResponseEntity<ImportJobStatus> upload(String body, String contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        return restTemplate.postForEntity(baseUrl, new HttpEntity<>(body, headers), ImportJobStatus.class);
+    }
+
+    private ImportJobStatus awaitCompletion(URI location) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        ImportJobStatus status;
+        do {
+            status = restTemplate.getForObject(location, ImportJobStatus.class);
+            if (status.state() != ImportJobStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(50);
+        } while (System.nanoTime() < deadline);
+        return status;
+    }
+}
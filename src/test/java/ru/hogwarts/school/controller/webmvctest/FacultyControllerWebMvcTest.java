@@ -6,16 +6,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.hogwarts.school.controller.FacultyController;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.CollectionVersion;
+import ru.hogwarts.school.dto.ColorStats;
+import ru.hogwarts.school.dto.FacultyStats;
+import ru.hogwarts.school.dto.FacultyView;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentView;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.DataExportService;
 import ru.hogwarts.school.service.FacultyService;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +47,9 @@ public class FacultyControllerWebMvcTest {
     @MockBean
     private FacultyService facultyService;
 
+    @MockBean
+    private DataExportService exportService;
+
     @Test
     void testCreateFaculty() throws Exception {
         Faculty faculty = new Faculty("Gryffindor", "Red");
@@ -49,6 +67,31 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(jsonPath("$.color").value("Red"));
     }
 
+    @Test
+    void testCreateFacultiesBatch() throws Exception {
+        List<Faculty> faculties = List.of(new Faculty("Gryffindor", "Red"), new Faculty("Gryffindor", "Red"));
+
+        when(facultyService.createFaculties(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.CREATED),
+                BatchItemResult.invalid(1, null, "Faculty name already exists")));
+
+        mockMvc.perform(post("/faculty/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(faculties)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].error").value("Faculty name already exists"));
+    }
+
+    @Test
+    void testDeleteFacultiesBatchEmpty() throws Exception {
+        mockMvc.perform(delete("/faculty/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetFaculty() throws Exception {
         Faculty faculty = new Faculty("Slytherin", "Green");
@@ -71,18 +114,43 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetFacultyNotModified() throws Exception {
+        when(facultyService.getFacultyVersion(1L)).thenReturn(2L);
+
+        mockMvc.perform(get("/faculty/1").header("If-None-Match", "W/\"1-2\", \"1-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-2\""));
+
+        verify(facultyService, never()).getFacultyById(1L);
+    }
+
+    @Test
+    void testGetFacultyNotModifiedNotFound() throws Exception {
+        when(facultyService.getFacultyVersion(999L)).thenReturn(null);
+
+        mockMvc.perform(get("/faculty/999").header("If-None-Match", "\"999-0\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetAllFacultiesNotModified() throws Exception {
+        when(facultyService.getFacultyCollectionVersion()).thenReturn(new CollectionVersion(4, 4, 0));
+
+        mockMvc.perform(get("/faculty").header("If-None-Match", "\"c4-4-0\""))
+                .andExpect(status().isNotModified());
+
+        verify(facultyService, never()).getAllFaculties();
+    }
+
     @Test
     void testGetAllFaculties() throws Exception {
-        Faculty faculty1 = new Faculty("Gryffindor", "Red");
-        faculty1.setId(1L);
-        Faculty faculty2 = new Faculty("Slytherin", "Green");
-        faculty2.setId(2L);
-        Faculty faculty3 = new Faculty("Ravenclaw", "Blue");
-        faculty3.setId(3L);
-        Faculty faculty4 = new Faculty("Hufflepuff", "Yellow");
-        faculty4.setId(4L);
+        FacultyView faculty1 = new FacultyView(1L, "Gryffindor", "Red", 0L);
+        FacultyView faculty2 = new FacultyView(2L, "Slytherin", "Green", 0L);
+        FacultyView faculty3 = new FacultyView(3L, "Ravenclaw", "Blue", 0L);
+        FacultyView faculty4 = new FacultyView(4L, "Hufflepuff", "Yellow", 0L);
 
-        List<Faculty> faculties = Arrays.asList(faculty1, faculty2, faculty3, faculty4);
+        List<FacultyView> faculties = Arrays.asList(faculty1, faculty2, faculty3, faculty4);
 
         when(facultyService.getAllFaculties()).thenReturn(faculties);
 
@@ -91,7 +159,45 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Gryffindor"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("Slytherin"));
+                .andExpect(jsonPath("$[1].name").value("Slytherin"))
+                .andExpect(header().string("ETag", "W/\"c4-4-0\""));
+    }
+
+    @Test
+    void testGetAllFacultiesKeysetPage() throws Exception {
+        FacultyView faculty1 = new FacultyView(3L, "Ravenclaw", "Blue", 0L);
+        FacultyView faculty2 = new FacultyView(4L, "Hufflepuff", "Yellow", 0L);
+
+        when(facultyService.getFacultiesAfter(2L, 2)).thenReturn(Arrays.asList(faculty1, faculty2));
+
+        mockMvc.perform(get("/faculty")
+                        .param("after", "2")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "4"))
+                .andExpect(jsonPath("$[0].id").value(3))
+                .andExpect(jsonPath("$[1].id").value(4));
+    }
+
+    @Test
+    void testStreamAllFacultiesAsNdjson() throws Exception {
+        FacultyView faculty = new FacultyView(1L, "Gryffindor", "Red", 0L);
+
+        doAnswer(invocation -> {
+            Consumer<FacultyView> action = invocation.getArgument(0);
+            action.accept(faculty);
+            return null;
+        }).when(exportService).forEachFaculty(any());
+
+        MvcResult result = mockMvc.perform(get("/faculty")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"name\":\"Gryffindor\"")));
     }
 
     @Test
@@ -111,6 +217,36 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(jsonPath("$.color").value("Gold"));
     }
 
+    @Test
+    void testUpdateFacultyIfMatchStale() throws Exception {
+        Faculty facultyToUpdate = new Faculty("Gryffindor (updated)", "Scarlet");
+
+        when(facultyService.getFacultyVersion(1L)).thenReturn(5L);
+
+        mockMvc.perform(put("/faculty/1")
+                        .header("If-Match", "\"1-4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(facultyToUpdate)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(facultyService, never()).updateFaculty(anyLong(), any(Faculty.class), any());
+    }
+
+    @Test
+    void testUpdateFacultyConflictReturns409() throws Exception {
+        Faculty facultyToUpdate = new Faculty("Gryffindor", "Scarlet");
+
+        when(facultyService.updateFaculty(eq(1L), any(Faculty.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Faculty.class, 1L));
+
+        mockMvc.perform(put("/faculty/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(facultyToUpdate)))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
     @Test
     void testUpdateFacultyNotFound() throws Exception {
         Faculty facultyToUpdate = new Faculty("Unknown Faculty", "Unknown");
@@ -147,9 +283,8 @@ public class FacultyControllerWebMvcTest {
 
     @Test
     void testGetFacultiesByColor() throws Exception {
-        Faculty faculty1 = new Faculty("Gryffindor", "Red");
-        faculty1.setId(1L);
-        List<Faculty> redFaculties = Arrays.asList(faculty1);
+        FacultyView faculty1 = new FacultyView(1L, "Gryffindor", "Red", 0L);
+        List<FacultyView> redFaculties = Arrays.asList(faculty1);
 
         when(facultyService.getFacultiesByColor("Red")).thenReturn(redFaculties);
 
@@ -162,9 +297,8 @@ public class FacultyControllerWebMvcTest {
 
     @Test
     void testSearchFaculties() throws Exception {
-        Faculty faculty1 = new Faculty("Gryffindor", "Red");
-        faculty1.setId(1L);
-        List<Faculty> searchResults = Arrays.asList(faculty1);
+        FacultyView faculty1 = new FacultyView(1L, "Gryffindor", "Red", 0L);
+        List<FacultyView> searchResults = Arrays.asList(faculty1);
 
         when(facultyService.getFacultiesByNameOrColor("Gryff")).thenReturn(searchResults);
 
@@ -175,17 +309,42 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(jsonPath("$[0].name").value("Gryffindor"));
     }
 
+    @Test
+    void testSearchFacultiesKeysetPage() throws Exception {
+        FacultyView faculty1 = new FacultyView(7L, "Gryffindor", "Red", 0L);
+
+        when(facultyService.getFacultiesByNameOrColorAfter("Red", 0L, 100)).thenReturn(List.of(faculty1));
+
+        mockMvc.perform(get("/faculty/search")
+                        .param("search", "Red")
+                        .param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(7));
+    }
+
+    @Test
+    void testSearchFacultiesRanked() throws Exception {
+        Faculty faculty = new Faculty("Ravenclaw", "Blue");
+        faculty.setId(3L);
+
+        when(facultyService.searchFaculties("Raven", 5)).thenReturn(List.of(new SearchHit<>(faculty, 1.5)));
+
+        mockMvc.perform(get("/faculty/search/ranked")
+                        .param("q", "Raven")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.name").value("Ravenclaw"))
+                .andExpect(jsonPath("$[0].score").value(1.5));
+    }
+
     @Test
     void testGetFacultyStudents() throws Exception {
-        // Создаем студентов БЕЗ установки faculty (чтобы избежать циклических ссылок)
-        Student student1 = new Student("Harry Potter", 17);
-        student1.setId(1L);
-        Student student2 = new Student("Hermione Granger", 17);
-        student2.setId(2L);
-        Student student3 = new Student("Ron Weasley", 17);
-        student3.setId(3L);
+        StudentView student1 = new StudentView(1L, "Harry Potter", 17, 0L, 1L);
+        StudentView student2 = new StudentView(2L, "Hermione Granger", 17, 0L, 1L);
+        StudentView student3 = new StudentView(3L, "Ron Weasley", 17, 0L, 1L);
 
-        List<Student> students = Arrays.asList(student1, student2, student3);
+        List<StudentView> students = Arrays.asList(student1, student2, student3);
 
         when(facultyService.getFacultyStudents(1L)).thenReturn(students);
 
@@ -193,6 +352,7 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].name").value("Harry Potter"))
                 .andExpect(jsonPath("$[0].age").value(17))
+                .andExpect(jsonPath("$[0].facultyId").value(1))
                 .andExpect(jsonPath("$[1].name").value("Hermione Granger"))
                 .andExpect(jsonPath("$[2].name").value("Ron Weasley"));
     }
@@ -205,4 +365,66 @@ public class FacultyControllerWebMvcTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isEmpty());
     }
+
+    @Test
+    void testGetFacultyStudentsKeysetPage() throws Exception {
+        StudentView student = new StudentView(4L, "Harry Potter", 17, 0L, 1L);
+
+        when(facultyService.getFacultyStudentsAfter(1L, 3L, 1)).thenReturn(List.of(student));
+
+        mockMvc.perform(get("/faculty/1/students")
+                        .param("after", "3")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "4"))
+                .andExpect(jsonPath("$[0].name").value("Harry Potter"));
+    }
+
+    @Test
+    void testGetFacultyStats() throws Exception {
+        when(facultyService.getFacultyStats()).thenReturn(List.of(
+                new FacultyStats(1L, "Gryffindor", "Red", 2, 16.5),
+                new FacultyStats(2L, "Slytherin", "Green", 0, null)));
+
+        mockMvc.perform(get("/faculty/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].facultyId").value(1))
+                .andExpect(jsonPath("$[0].studentCount").value(2))
+                .andExpect(jsonPath("$[0].averageAge").value(16.5))
+                .andExpect(jsonPath("$[1].studentCount").value(0))
+                .andExpect(jsonPath("$[1].averageAge").isEmpty());
+    }
+
+    @Test
+    void testGetColorStats() throws Exception {
+        when(facultyService.getColorStats()).thenReturn(List.of(new ColorStats("Red", 2, 5, 14.2)));
+
+        mockMvc.perform(get("/faculty/stats/colors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].color").value("Red"))
+                .andExpect(jsonPath("$[0].facultyCount").value(2))
+                .andExpect(jsonPath("$[0].studentCount").value(5));
+    }
+
+    @Test
+    void testGetFacultyStudentCount() throws Exception {
+        when(facultyService.getFacultyStudentCount(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/faculty/1/students/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3"));
+    }
+
+    @Test
+    void testGetFacultyDoesNotSerializeStudents() throws Exception {
+        Faculty faculty = new Faculty("Hufflepuff", "Yellow");
+        faculty.setId(1L);
+        faculty.addStudent(new Student("Cedric Diggory", 17));
+
+        when(facultyService.getFacultyById(1L)).thenReturn(faculty);
+
+        mockMvc.perform(get("/faculty/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.students").doesNotExist());
+    }
 }
\ No newline at end of file
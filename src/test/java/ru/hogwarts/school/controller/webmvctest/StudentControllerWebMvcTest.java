@@ -6,16 +6,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.hogwarts.school.controller.StudentController;
+import ru.hogwarts.school.dto.AgeBucket;
+import ru.hogwarts.school.dto.BatchItemResult;
+import ru.hogwarts.school.dto.CollectionVersion;
+import ru.hogwarts.school.dto.SearchHit;
+import ru.hogwarts.school.dto.StudentStats;
+import ru.hogwarts.school.dto.StudentView;
 import ru.hogwarts.school.model.Faculty;
 import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.service.DataExportService;
 import ru.hogwarts.school.service.StudentService;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -32,6 +47,9 @@ public class StudentControllerWebMvcTest {
     @MockBean
     private StudentService studentService;
 
+    @MockBean
+    private DataExportService exportService;
+
     @Test
     void testCreateStudent() throws Exception {
         Student student = new Student("Harry Potter", 17);
@@ -49,6 +67,79 @@ public class StudentControllerWebMvcTest {
                 .andExpect(jsonPath("$.age").value(17));
     }
 
+    @Test
+    void testCreateInvalidStudentReturnsProblem() throws Exception {
+        mockMvc.perform(post("/student")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"\",\"age\":151}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.detail").value("age: must be less than or equal to 150; name: must not be blank"));
+
+        verify(studentService, never()).createStudent(any());
+    }
+
+    @Test
+    void testCreateStudentsBatch() throws Exception {
+        List<Student> students = List.of(new Student("Harry Potter", 17), new Student("Ron Weasley", 17));
+
+        when(studentService.createStudents(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.CREATED),
+                BatchItemResult.of(1, 2L, BatchItemResult.Status.CREATED)));
+
+        mockMvc.perform(post("/student/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(students)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void testUpdateStudentsBatch() throws Exception {
+        Student student = new Student("Harry Potter", 18);
+        student.setId(1L);
+        Student missing = new Student("Nobody", 18);
+        missing.setId(999L);
+
+        when(studentService.updateStudents(anyList())).thenReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.UPDATED),
+                BatchItemResult.of(1, 999L, BatchItemResult.Status.NOT_FOUND)));
+
+        mockMvc.perform(put("/student/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(student, missing))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"));
+    }
+
+    @Test
+    void testDeleteStudentsBatch() throws Exception {
+        when(studentService.deleteStudents(List.of(1L, 2L))).thenReturn(List.of(
+                BatchItemResult.of(0, 1L, BatchItemResult.Status.DELETED),
+                BatchItemResult.of(1, 2L, BatchItemResult.Status.DELETED)));
+
+        mockMvc.perform(delete("/student/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("DELETED"))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void testCreateStudentsBatchTooLarge() throws Exception {
+        List<Student> students = Collections.nCopies(1001, new Student("Clone", 17));
+
+        mockMvc.perform(post("/student/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(students)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetStudent() throws Exception {
         Student student = new Student("Hermione Granger", 17);
@@ -71,16 +162,63 @@ public class StudentControllerWebMvcTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetStudentReturnsETag() throws Exception {
+        Student student = new Student("Hermione Granger", 17);
+        student.setId(1L);
+        student.setVersion(3L);
+
+        when(studentService.getStudentById(1L)).thenReturn(student);
+
+        mockMvc.perform(get("/student/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+    }
+
+    @Test
+    void testGetStudentNotModified() throws Exception {
+        when(studentService.getStudentVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(get("/student/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"1-3\""))
+                .andExpect(content().string(""));
+
+        verify(studentService, never()).getStudentById(1L);
+    }
+
+    @Test
+    void testGetStudentModifiedSinceETag() throws Exception {
+        Student student = new Student("Hermione Granger", 17);
+        student.setId(1L);
+        student.setVersion(4L);
+
+        when(studentService.getStudentVersion(1L)).thenReturn(4L);
+        when(studentService.getStudentById(1L)).thenReturn(student);
+
+        mockMvc.perform(get("/student/1").header("If-None-Match", "\"1-3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-4\""))
+                .andExpect(jsonPath("$.name").value("Hermione Granger"));
+    }
+
+    @Test
+    void testGetAllStudentsNotModified() throws Exception {
+        when(studentService.getStudentCollectionVersion()).thenReturn(new CollectionVersion(3, 3, 5));
+
+        mockMvc.perform(get("/student").header("If-None-Match", "\"c3-3-5\""))
+                .andExpect(status().isNotModified());
+
+        verify(studentService, never()).getAllStudents();
+    }
+
     @Test
     void testGetAllStudents() throws Exception {
-        Student student1 = new Student("Ron Weasley", 17);
-        student1.setId(1L);
-        Student student2 = new Student("Draco Malfoy", 17);
-        student2.setId(2L);
-        Student student3 = new Student("Cedric Diggory", 19);
-        student3.setId(3L);
+        StudentView student1 = new StudentView(1L, "Ron Weasley", 17, 0L, null);
+        StudentView student2 = new StudentView(2L, "Draco Malfoy", 17, 0L, null);
+        StudentView student3 = new StudentView(3L, "Cedric Diggory", 19, 0L, null);
 
-        List<Student> students = Arrays.asList(student1, student2, student3);
+        List<StudentView> students = Arrays.asList(student1, student2, student3);
 
         when(studentService.getAllStudents()).thenReturn(students);
 
@@ -89,17 +227,106 @@ public class StudentControllerWebMvcTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Ron Weasley"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("Draco Malfoy"));
+                .andExpect(jsonPath("$[1].name").value("Draco Malfoy"))
+                .andExpect(header().string("ETag", "W/\"c3-3-0\""));
+    }
+
+    @Test
+    void testGetAllStudentsKeysetPage() throws Exception {
+        StudentView student1 = new StudentView(11L, "Ron Weasley", 17, 0L, null);
+        StudentView student2 = new StudentView(12L, "Draco Malfoy", 17, 0L, null);
+
+        when(studentService.getStudentsAfter(10L, 2)).thenReturn(Arrays.asList(student1, student2));
+
+        mockMvc.perform(get("/student")
+                        .param("after", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "12"))
+                .andExpect(jsonPath("$[0].id").value(11))
+                .andExpect(jsonPath("$[1].id").value(12));
+    }
+
+    @Test
+    void testGetAllStudentsLastKeysetPage() throws Exception {
+        StudentView student = new StudentView(13L, "Cedric Diggory", 19, 0L, null);
+
+        when(studentService.getStudentsAfter(12L, 2)).thenReturn(List.of(student));
+
+        mockMvc.perform(get("/student")
+                        .param("after", "12")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(13));
+    }
+
+    @Test
+    void testGetAllStudentsInvalidLimit() throws Exception {
+        mockMvc.perform(get("/student")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetStudentsWithoutFacultyFirstPageByDefault() throws Exception {
+        StudentView student = new StudentView(5L, "Luna Lovegood", 15, 0L, null);
+
+        when(studentService.getStudentsWithoutFacultyAfter(0L, 100)).thenReturn(List.of(student));
+
+        mockMvc.perform(get("/student/without-faculty"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(5));
+    }
+
+    @Test
+    void testGetStudentsWithoutFacultyKeysetPage() throws Exception {
+        StudentView student = new StudentView(7L, "Neville Longbottom", 15, 0L, null);
+
+        when(studentService.getStudentsWithoutFacultyAfter(5L, 1)).thenReturn(List.of(student));
+
+        mockMvc.perform(get("/student/without-faculty")
+                        .param("after", "5")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "7"));
+    }
+
+    @Test
+    void testStreamAllStudentsAsNdjson() throws Exception {
+        StudentView student1 = new StudentView(1L, "Ron Weasley", 17, 0L, null);
+        StudentView student2 = new StudentView(2L, "Draco Malfoy", 17, 0L, null);
+
+        doAnswer(invocation -> {
+            Consumer<StudentView> action = invocation.getArgument(0);
+            action.accept(student1);
+            action.accept(student2);
+            return null;
+        }).when(exportService).forEachStudent(any());
+
+        MvcResult result = mockMvc.perform(get("/student")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], Student.class).getName()).isEqualTo("Ron Weasley");
+        assertThat(objectMapper.readValue(lines[1], Student.class).getName()).isEqualTo("Draco Malfoy");
     }
 
     @Test
     void testGetStudentsByAge() throws Exception {
-        Student student1 = new Student("Neville Longbottom", 17);
-        student1.setId(1L);
-        Student student2 = new Student("Seamus Finnigan", 17);
-        student2.setId(2L);
+        StudentView student1 = new StudentView(1L, "Neville Longbottom", 17, 0L, null);
+        StudentView student2 = new StudentView(2L, "Seamus Finnigan", 17, 0L, null);
 
-        List<Student> students = Arrays.asList(student1, student2);
+        List<StudentView> students = Arrays.asList(student1, student2);
 
         when(studentService.getStudentsByAge(17)).thenReturn(students);
 
@@ -111,14 +338,11 @@ public class StudentControllerWebMvcTest {
 
     @Test
     void testGetStudentsByAgeRange() throws Exception {
-        Student student1 = new Student("Ginny Weasley", 15);
-        student1.setId(1L);
-        Student student2 = new Student("Luna Lovegood", 16);
-        student2.setId(2L);
-        Student student3 = new Student("Cho Chang", 18);
-        student3.setId(3L);
+        StudentView student1 = new StudentView(1L, "Ginny Weasley", 15, 0L, null);
+        StudentView student2 = new StudentView(2L, "Luna Lovegood", 16, 0L, null);
+        StudentView student3 = new StudentView(3L, "Cho Chang", 18, 0L, null);
 
-        List<Student> students = Arrays.asList(student1, student2, student3);
+        List<StudentView> students = Arrays.asList(student1, student2, student3);
 
         when(studentService.getStudentsByAgeBetween(15, 18)).thenReturn(students);
 
@@ -131,6 +355,81 @@ public class StudentControllerWebMvcTest {
                 .andExpect(jsonPath("$[2].age").value(18));
     }
 
+    @Test
+    void testGetStudentsByAgeKeysetPage() throws Exception {
+        StudentView student = new StudentView(5L, "Neville Longbottom", 17, 0L, null);
+
+        when(studentService.getStudentsByAgeAfter(17, 0L, 100)).thenReturn(List.of(student));
+
+        mockMvc.perform(get("/student/age/17")
+                        .param("limit", "100"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(5));
+    }
+
+    @Test
+    void testGetStudentsByName() throws Exception {
+        StudentView student = new StudentView(3L, "Luna Lovegood", 16, 0L, null);
+
+        when(studentService.getStudentsByNameAfter("luna", 2L, 1)).thenReturn(List.of(student));
+
+        mockMvc.perform(get("/student/search")
+                        .param("name", "luna")
+                        .param("after", "2")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "3"))
+                .andExpect(jsonPath("$[0].name").value("Luna Lovegood"));
+    }
+
+    @Test
+    void testGetStudentStats() throws Exception {
+        when(studentService.getStudentStats()).thenReturn(new StudentStats(3, 16.0, 15, 17));
+
+        mockMvc.perform(get("/student/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3))
+                .andExpect(jsonPath("$.averageAge").value(16.0))
+                .andExpect(jsonPath("$.minAge").value(15))
+                .andExpect(jsonPath("$.maxAge").value(17));
+    }
+
+    @Test
+    void testGetAgeHistogram() throws Exception {
+        when(studentService.getAgeHistogram()).thenReturn(List.of(new AgeBucket(15, 1), new AgeBucket(17, 2)));
+
+        mockMvc.perform(get("/student/stats/age-histogram"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].age").value(15))
+                .andExpect(jsonPath("$[0].count").value(1))
+                .andExpect(jsonPath("$[1].age").value(17))
+                .andExpect(jsonPath("$[1].count").value(2));
+    }
+
+    @Test
+    void testSearchStudentsRanked() throws Exception {
+        Student student = new Student("Neville Longbottom", 17);
+        student.setId(4L);
+
+        when(studentService.searchStudents("Longbotom", 20)).thenReturn(List.of(new SearchHit<>(student, 0.75)));
+
+        mockMvc.perform(get("/student/search/ranked")
+                        .param("q", " Longbotom "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].item.id").value(4))
+                .andExpect(jsonPath("$[0].item.name").value("Neville Longbottom"))
+                .andExpect(jsonPath("$[0].score").value(0.75));
+    }
+
+    @Test
+    void testSearchStudentsRankedInvalidParams() throws Exception {
+        mockMvc.perform(get("/student/search/ranked").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/student/search/ranked").param("q", "Harry").param("limit", "101"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testUpdateStudent() throws Exception {
         Student studentToUpdate = new Student("Cedric Diggory (updated)", 20);
@@ -148,6 +447,69 @@ public class StudentControllerWebMvcTest {
                 .andExpect(jsonPath("$.age").value(20));
     }
 
+    @Test
+    void testUpdateStudentIfMatch() throws Exception {
+        Student studentToUpdate = new Student("Cedric Diggory (updated)", 20);
+        Student updatedStudent = new Student("Cedric Diggory (updated)", 20);
+        updatedStudent.setId(1L);
+        updatedStudent.setVersion(3L);
+
+        when(studentService.getStudentVersion(1L)).thenReturn(2L);
+        when(studentService.updateStudent(eq(1L), any(Student.class), eq(2L))).thenReturn(updatedStudent);
+
+        mockMvc.perform(put("/student/1")
+                        .header("If-Match", "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(studentToUpdate)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3\""));
+    }
+
+    @Test
+    void testUpdateStudentIfMatchStale() throws Exception {
+        Student studentToUpdate = new Student("Cedric Diggory (updated)", 20);
+
+        when(studentService.getStudentVersion(1L)).thenReturn(3L);
+
+        mockMvc.perform(put("/student/1")
+                        .header("If-Match", "\"1-2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(studentToUpdate)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(studentService, never()).updateStudent(anyLong(), any(Student.class), any());
+    }
+
+    @Test
+    void testUpdateStudentConflictReturns409() throws Exception {
+        Student studentToUpdate = new Student("Cedric Diggory (updated)", 20);
+
+        when(studentService.updateStudent(eq(1L), any(Student.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Student.class, 1L));
+
+        mockMvc.perform(put("/student/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(studentToUpdate)))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void testAssignFacultyConflictReturns409() throws Exception {
+        Faculty faculty = new Faculty("Gryffindor", "Red");
+        faculty.setId(2L);
+
+        when(studentService.assignFacultyToStudent(eq(1L), any(Faculty.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Student.class, 1L));
+
+        mockMvc.perform(put("/student/1/faculty/2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(faculty)))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void testUpdateStudentNotFound() throws Exception {
         Student studentToUpdate = new Student("Unknown Student", 25);
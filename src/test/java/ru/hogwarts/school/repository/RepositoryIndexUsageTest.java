@@ -0,0 +1,175 @@
+package ru.hogwarts.school.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет, что схема из миграций Flyway покрывает запросы репозиториев индексами: метод репозитория
+ * вызывается по-настоящему, SQL, который построили Spring Data и Hibernate, перехватывается
+ * на уровне JDBC ({@link CapturedSql}), и план этого SQL не должен содержать tableScan.
+ * Поиск по подстроке и триграммам здесь не проверяется: его индексы (pg_trgm) есть только в PostgreSQL.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class RepositoryIndexUsageTest {
+    // H2 сам индексирует внешние ключи и может выбрать этот индекс вместо idx_students_faculty_id;
+    // в PostgreSQL внешний ключ индекса не создаёт, там работает только индекс из миграции
+    private static final String FACULTY_ID_INDEX = "idx_students_faculty_id|fk_students_faculty";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Faculty gryffindor;
+
+    @BeforeEach
+    void setUp() {
+        gryffindor = facultyRepository.findByName("Index_Gryffindor");
+        if (gryffindor == null) {
+            gryffindor = facultyRepository.save(new Faculty("Index_Gryffindor", "Red"));
+            facultyRepository.save(new Faculty("Index_Slytherin", "Green"));
+            List<Student> students = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                Student student = new Student("Index_" + i, 11 + i % 7);
+                student.setFaculty(i % 2 == 0 ? gryffindor : null);
+                students.add(student);
+            }
+            studentRepository.saveAll(students);
+            jdbcTemplate.execute("ANALYZE");
+        }
+        // Запросы из query cache не доходят до БД, и перехватывать было бы нечего
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                query("findViewsByAge", test -> test.studentRepository.findViewsByAge(17),
+                        "idx_students_age"),
+                query("findViewsByAgeAfter", test -> test.studentRepository.findViewsByAgeAfter(17, 0, Limit.of(100)),
+                        "idx_students_age"),
+                query("findViewsByAgeBetween", test -> test.studentRepository.findViewsByAgeBetween(12, 14),
+                        "idx_students_age"),
+                query("findViewsByAgeBetweenAfter",
+                        test -> test.studentRepository.findViewsByAgeBetweenAfter(12, 14, 0, Limit.of(100)),
+                        "idx_students_age"),
+                query("findViewsByFacultyId", test -> test.studentRepository.findViewsByFacultyId(test.gryffindor.getId()),
+                        FACULTY_ID_INDEX),
+                query("findViewsByFacultyIdAfter",
+                        test -> test.studentRepository.findViewsByFacultyIdAfter(test.gryffindor.getId(), 0, Limit.of(100)),
+                        FACULTY_ID_INDEX),
+                query("countByFaculty_Id", test -> test.studentRepository.countByFaculty_Id(test.gryffindor.getId()),
+                        FACULTY_ID_INDEX),
+                query("findViewsByColor", test -> test.facultyRepository.findViewsByColor("Red"),
+                        "idx_faculties_color"),
+                query("findViewsByColorAfter", test -> test.facultyRepository.findViewsByColorAfter("Red", 0, Limit.of(100)),
+                        "idx_faculties_color"),
+                query("findByName", test -> test.facultyRepository.findByName("Index_Gryffindor"),
+                        "uk_faculties_name"),
+                query("findByNameIn",
+                        test -> test.facultyRepository.findByNameIn(List.of("Index_Gryffindor", "Index_Slytherin")),
+                        "uk_faculties_name"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void testQueryUsesIndex(String query, RepositoryCall call, String index) {
+        CapturedSql.statements.clear();
+        call.invoke(this);
+        List<String> statements = List.copyOf(CapturedSql.statements);
+        assertThat(statements).as(query).isNotEmpty();
+
+        // Параметры не привязаны: H2 строит план при подготовке запроса, без значений
+        String sql = statements.get(statements.size() - 1);
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertThat(plan).as(query + ": " + sql).doesNotContainIgnoringCase("tableScan")
+                .containsPattern("(?i)/\\* public\\.(" + index + ")");
+    }
+
+    private static Arguments query(String name, RepositoryCall call, String index) {
+        return Arguments.of(name, call, index);
+    }
+
+    @FunctionalInterface
+    interface RepositoryCall {
+        void invoke(RepositoryIndexUsageTest test);
+    }
+
+    /**
+     * Запоминает SQL подготавливаемых запросов. Hibernate уже занят RequestStatementCounter
+     * как StatementInspector, поэтому DataSource оборачивается снаружи всех остальных обёрток
+     * (постпроцессор без порядка выполняется после упорядоченных).
+     */
+    @TestConfiguration
+    static class CapturedSql {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && "dataSource".equals(beanName)) {
+                        return new DelegatingDataSource(dataSource) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return capturing(super.getConnection());
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static Connection capturing(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("prepareStatement".equals(method.getName())) {
+                            statements.add((String) args[0]);
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ru.hogwarts.school.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import ru.hogwarts.school.dto.StudentView;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросы по факультету на встроенной БД: если Spring Data не может построить
+ * производный запрос, контекст с репозиторием не поднимется.
+ */
+@DataJpaTest
+class StudentRepositoryTest {
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Test
+    void testFiltersByFacultyInPages() {
+        Faculty gryffindor = facultyRepository.save(new Faculty("Repository_Gryffindor", "Red"));
+        for (int i = 0; i < 5; i++) {
+            Student student = new Student("Repository_" + i, 11 + i);
+            student.setFaculty(i < 3 ? gryffindor : null);
+            studentRepository.save(student);
+        }
+
+        List<StudentView> first = studentRepository.findViewsByFacultyIdAfter(gryffindor.getId(), 0, Limit.of(2));
+        List<StudentView> second = studentRepository.findViewsByFacultyIdAfter(
+                gryffindor.getId(), first.get(first.size() - 1).id(), Limit.of(2));
+
+        assertThat(first).hasSize(2);
+        assertThat(second).hasSize(1);
+        assertThat(second.get(0).id()).isGreaterThan(first.get(1).id());
+        assertThat(first).extracting(StudentView::name).containsExactly("Repository_0", "Repository_1");
+        assertThat(second).extracting(StudentView::name).containsExactly("Repository_2");
+        assertThat(studentRepository.countByFaculty_Id(gryffindor.getId())).isEqualTo(3);
+
+        List<StudentView> withoutFaculty = studentRepository.findViewsWithoutFacultyAfter(0, Limit.of(10));
+        assertThat(withoutFaculty).extracting(StudentView::name).containsExactly("Repository_3", "Repository_4");
+        assertThat(withoutFaculty).allMatch(student -> student.facultyId() == null);
+        assertThat(studentRepository.findViewsWithoutFacultyAfter(withoutFaculty.get(0).id(), Limit.of(10)))
+                .extracting(StudentView::name).containsExactly("Repository_4");
+    }
+}
@@ -0,0 +1,51 @@
+package ru.hogwarts.school.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запускает одну и ту же работу в нескольких потоках одновременно и ждёт её завершения;
+ * исключение из любого потока пробрасывается в тест.
+ */
+final class Contention {
+
+    private Contention() {
+    }
+
+    /**
+     * @return время от общего старта до завершения последнего потока, нс
+     */
+    static long run(int threads, ThreadWork work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    work.run(thread);
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return System.nanoTime() - started;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    interface ThreadWork {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.FacultyRepository;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Счётчики студентов по факультетам должны совпадать с БД после параллельных
+ * вставок, переводов между факультетами, удалений и откатов.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("h2")
+public class FacultyEnrollmentCounterTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 40;
+
+    @Autowired
+    private FacultyEnrollmentCounter counter;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private FacultyRepository facultyRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private List<Faculty> faculties;
+
+    @BeforeEach
+    void setUp() {
+        faculties = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            faculties.add(facultyRepository.save(new Faculty("Counter_" + i + "_" + System.nanoTime(), "Color_" + i)));
+        }
+    }
+
+    @Test
+    void testSeededBeforeStartupCompletes() {
+        assertThat(counter.isSeeded()).isTrue();
+        assertThat(counter.isRunning()).isTrue();
+    }
+
+    @Test
+    void testReconcileSkippedWhileWriteInFlight() {
+        Faculty faculty = faculties.get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            Student student = new Student("Pending", 12);
+            student.setFaculty(faculty);
+            studentRepository.saveAndFlush(student);
+            // Незакоммиченная вставка уже видна запросу сверки, но счётчик её ещё не получил
+            assertThat(counter.reconcile()).isEqualTo(-1);
+            assertThat(counter.get(faculty.getId())).isZero();
+        });
+
+        assertThat(counter.get(faculty.getId())).isEqualTo(1);
+        assertThat(counter.reconcile()).isNotNegative();
+        assertThat(counter.get(faculty.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void testCountersMatchDatabaseAfterSequentialChanges() {
+        Faculty first = faculties.get(0);
+        Faculty second = faculties.get(1);
+        Student student = new Student("Harry", 11);
+        student.setFaculty(first);
+        student = studentService.createStudent(student);
+        assertThat(counter.get(first.getId())).isEqualTo(1);
+
+        studentService.assignFacultyToStudent(student.getId(), second);
+        assertThat(counter.get(first.getId())).isZero();
+        assertThat(counter.get(second.getId())).isEqualTo(1);
+
+        studentService.deleteStudent(student.getId());
+        assertThat(counter.get(second.getId())).isZero();
+    }
+
+    @Test
+    void testRolledBackInsertDoesNotChangeCounter() {
+        Faculty faculty = faculties.get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            Student student = new Student("Ghost", 12);
+            student.setFaculty(faculty);
+            studentRepository.saveAndFlush(student);
+            status.setRollbackOnly();
+        });
+
+        assertThat(counter.get(faculty.getId())).isZero();
+        assertThat(studentRepository.countByFaculty_Id(faculty.getId())).isZero();
+    }
+
+    @Test
+    void testCountersMatchDatabaseUnderConcurrentWrites() throws Exception {
+        Contention.run(THREADS, this::runOperations);
+
+        for (Faculty faculty : faculties) {
+            long expected = studentRepository.countByFaculty_Id(faculty.getId());
+            assertThat(counter.get(faculty.getId())).as("faculty %s", faculty.getId()).isEqualTo(expected);
+        }
+        counter.reconcile();
+        for (Faculty faculty : faculties) {
+            assertThat(counter.get(faculty.getId()))
+                    .isEqualTo(studentRepository.countByFaculty_Id(faculty.getId()));
+        }
+    }
+
+    // Каждый поток меняет только своих студентов, факультеты общие
+    private void runOperations(int thread) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Long> own = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = own.isEmpty() ? 0 : random.nextInt(3);
+            switch (operation) {
+                case 0 -> {
+                    Student student = new Student("Student_" + thread + "_" + i, 11 + random.nextInt(7));
+                    student.setFaculty(randomFaculty(random));
+                    own.add(studentService.createStudent(student).getId());
+                }
+                case 1 -> studentService.assignFacultyToStudent(own.get(random.nextInt(own.size())),
+                        randomFaculty(random));
+                default -> studentService.deleteStudent(own.remove(random.nextInt(own.size())));
+            }
+        }
+    }
+
+    private Faculty randomFaculty(ThreadLocalRandom random) {
+        return faculties.get(random.nextInt(faculties.size()));
+    }
+}
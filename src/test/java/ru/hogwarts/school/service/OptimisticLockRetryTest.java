@@ -0,0 +1,125 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hogwarts.school.model.Faculty;
+import ru.hogwarts.school.model.Student;
+import ru.hogwarts.school.repository.StudentRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Параллельные обновления одного студента: конфликты версий повторяются сервисом,
+ * ни одно успешное обновление не теряется, неудачи после всех попыток видны вызывающему.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+public class OptimisticLockRetryTest {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetryTest.class);
+
+    private static final int THREADS = 8;
+    private static final int UPDATES = 25;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private FacultyService facultyService;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${school.conflict-retry.max-attempts}")
+    private int maxAttempts;
+
+    @Test
+    void testConcurrentUpdatesAreNotLost() throws Exception {
+        Student student = studentService.createStudent(new Student("Contended", 11));
+        long id = student.getId();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger exhausted = new AtomicInteger();
+        double retriedBefore = conflicts("StudentService.updateStudent", "retried");
+        double exhaustedBefore = conflicts("StudentService.updateStudent", "exhausted");
+
+        long elapsed = Contention.run(THREADS, thread -> {
+            for (int i = 0; i < UPDATES; i++) {
+                try {
+                    studentService.updateStudent(id, new Student("Contended_" + thread + "_" + i, 11 + thread));
+                    succeeded.incrementAndGet();
+                } catch (OptimisticLockingFailureException e) {
+                    exhausted.incrementAndGet();
+                }
+            }
+        });
+
+        double retried = conflicts("StudentService.updateStudent", "retried") - retriedBefore;
+        logger.info("{} updates of one student in {} ms: {} succeeded ({} per second), {} retries, {} exhausted",
+                THREADS * UPDATES, TimeUnit.NANOSECONDS.toMillis(elapsed), succeeded.get(),
+                String.format("%.0f", succeeded.get() * 1e9 / elapsed), (long) retried, exhausted.get());
+
+        assertThat(succeeded.get() + exhausted.get()).isEqualTo(THREADS * UPDATES);
+        assertThat(succeeded.get()).isPositive();
+        // Без аспекта конфликты не повторялись бы и метрика осталась бы пустой
+        assertThat(retried).isPositive();
+        assertThat(conflicts("StudentService.updateStudent", "exhausted") - exhaustedBefore)
+                .isEqualTo(exhausted.get());
+        // Каждое исчерпание — это maxAttempts попыток, из них maxAttempts - 1 повторов
+        assertThat(retried).isGreaterThanOrEqualTo((double) exhausted.get() * (maxAttempts - 1));
+        // Каждое успешное обновление увеличило версию ровно на единицу
+        Student stored = studentRepository.findById(id).orElseThrow();
+        assertThat(stored.getVersion()).isEqualTo(student.getVersion() + succeeded.get());
+    }
+
+    @Test
+    void testConcurrentFacultyAssignmentsAreNotLost() throws Exception {
+        Student student = studentService.createStudent(new Student("Sorted", 11));
+        List<Faculty> faculties = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            faculties.add(facultyService.createFaculty(new Faculty("Retry_" + i + "_" + System.nanoTime(), "Color_" + i)));
+        }
+        AtomicInteger succeeded = new AtomicInteger();
+        double retriedBefore = conflicts("StudentService.assignFacultyToStudent", "retried");
+
+        Contention.run(THREADS, thread -> {
+            for (int i = 0; i < UPDATES; i++) {
+                // Соседние потоки назначают разные факультеты, чтобы каждое обновление меняло запись
+                Faculty faculty = faculties.get((thread + i) % faculties.size());
+                try {
+                    if (studentService.assignFacultyToStudent(student.getId(), faculty) != null) {
+                        succeeded.incrementAndGet();
+                    }
+                } catch (OptimisticLockingFailureException ignored) {
+                    // попытки исчерпаны — такое обновление не засчитывается
+                }
+            }
+        });
+
+        assertThat(succeeded.get()).isPositive();
+        assertThat(conflicts("StudentService.assignFacultyToStudent", "retried") - retriedBefore).isPositive();
+        Student stored = studentRepository.findById(student.getId()).orElseThrow();
+        assertThat(stored.getVersion()).isBetween(1L, student.getVersion() + succeeded.get());
+    }
+
+    private double conflicts(String method, String outcome) {
+        var counter = meterRegistry.find("school.optimistic_lock.conflicts")
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .counter();
+        return counter != null ? counter.count() : 0;
+    }
+}
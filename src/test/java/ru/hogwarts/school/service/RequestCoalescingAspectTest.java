@@ -0,0 +1,187 @@
+package ru.hogwarts.school.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Объединение одновременных вызовов: ведущий вызов держится на защёлке,
+ * пока к нему не присоединятся остальные.
+ */
+class RequestCoalescingAspectTest {
+    private static final int CALLERS = 8;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final WriteGeneration writeGeneration = new WriteGeneration();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentIdenticalCallsShareOneInvocation() throws Exception {
+        SlowReads target = new SlowReads();
+        SlowReads reads = proxy(target, 100, Duration.ofSeconds(5));
+
+        List<Future<List<String>>> results = callConcurrently(target, () -> reads.read(1L));
+
+        assertThat(target.invocations.get()).isEqualTo(1);
+        for (Future<List<String>> result : results) {
+            assertThat(result.get()).isSameAs(results.get(0).get());
+        }
+        assertThat(count("leader")).isEqualTo(1);
+        assertThat(count("follower")).isEqualTo(CALLERS - 1);
+
+        reads.read(1L);
+        assertThat(target.invocations.get()).as("finished calls are not cached").isEqualTo(2);
+    }
+
+    @Test
+    void testDifferentArgumentsAreNotCoalesced() {
+        SlowReads target = new SlowReads();
+        SlowReads reads = proxy(target, 100, Duration.ofSeconds(5));
+        target.release.countDown();
+
+        reads.read(1L);
+        reads.read(2L);
+
+        assertThat(target.invocations.get()).isEqualTo(2);
+        assertThat(count("follower")).isZero();
+    }
+
+    @Test
+    void testFollowersReceiveLeaderFailure() throws Exception {
+        SlowReads target = new SlowReads();
+        SlowReads reads = proxy(target, 100, Duration.ofSeconds(5));
+
+        List<Future<List<String>>> results = callConcurrently(target, () -> reads.read(-1L));
+
+        assertThat(target.invocations.get()).isEqualTo(1);
+        for (Future<List<String>> result : results) {
+            assertThatThrownBy(result::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void testReadAfterWriteDoesNotJoinEarlierCall() throws Exception {
+        SlowReads target = new SlowReads();
+        SlowReads reads = proxy(target, 100, Duration.ofSeconds(5));
+        Future<List<String>> before = executor.submit(() -> reads.read(1L));
+        assertThat(target.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        writeGeneration.advance();
+        Future<List<String>> after = executor.submit(() -> reads.read(1L));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (target.invocations.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        target.release.countDown();
+
+        assertThat(after.get()).isEqualTo(before.get());
+        assertThat(target.invocations.get()).isEqualTo(2);
+        assertThat(count("follower")).isZero();
+    }
+
+    @Test
+    void testFollowerRunsItselfWhenLeaderIsSlow() throws Exception {
+        SlowReads target = new SlowReads();
+        SlowReads reads = proxy(target, 100, Duration.ofMillis(50));
+        Future<List<String>> leader = executor.submit(() -> reads.read(1L));
+        assertThat(target.started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Future<List<String>> follower = executor.submit(() -> reads.read(1L));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (target.invocations.get() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        target.release.countDown();
+
+        assertThat(follower.get()).isEqualTo(leader.get());
+        assertThat(target.invocations.get()).isEqualTo(2);
+        assertThat(count("timed_out")).isEqualTo(1);
+    }
+
+    @Test
+    void testBypassesWhenKeyTableIsFull() {
+        SlowReads target = new SlowReads();
+        SlowReads reads = proxy(target, 0, Duration.ofSeconds(5));
+        target.release.countDown();
+
+        reads.read(1L);
+
+        assertThat(count("bypassed")).isEqualTo(1);
+        assertThat(count("leader")).isZero();
+    }
+
+    private SlowReads proxy(SlowReads target, int maxKeys, Duration waitTimeout) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new RequestCoalescingAspect(meterRegistry, writeGeneration, true, maxKeys, waitTimeout));
+        return factory.getProxy();
+    }
+
+    // Первый вызов начинается, остальные присоединяются к нему, затем ведущий отпускается
+    private <T> List<Future<T>> callConcurrently(SlowReads target, Callable<T> call)
+            throws InterruptedException {
+        List<Future<T>> results = new ArrayList<>();
+        results.add(executor.submit(call));
+        assertThat(target.started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("follower") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        target.release.countDown();
+        return results;
+    }
+
+    private double count(String role) {
+        return meterRegistry.find("school.coalescing.calls").tag("role", role).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    static class SlowReads {
+        final AtomicInteger invocations = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Coalesce
+        public List<String> read(Long id) {
+            invocations.incrementAndGet();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (id < 0) {
+                throw new IllegalArgumentException("negative id");
+            }
+            return List.of("value-" + id);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.hogwarts.school.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.hogwarts.school.dto.StudentImportRow;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StudentRowReaderTest {
+
+    @Test
+    void testCsvFieldsAndQuoting() throws Exception {
+        StudentRowReader reader = StudentRowReader.csv(reader("\uFEFFAge, Faculty ,NAME\n"
+                + " 11 , Gryffindor , Harry Potter\n"
+                + "12,,\"Weasley, \"\"Ron\"\"\"\n"
+                + "\n"
+                + "13,\"Hufflepuff\" x,Cedric\n"));
+
+        assertThat(reader.next()).isEqualTo(StudentRowReader.Row.of(2,
+                new StudentImportRow("Harry Potter", 11, "Gryffindor")));
+        assertThat(reader.next()).isEqualTo(StudentRowReader.Row.of(3,
+                new StudentImportRow("Weasley, \"Ron\"", 12, null)));
+        assertThat(reader.next()).isEqualTo(StudentRowReader.Row.invalid(5,
+                "unexpected character after quoted field"));
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void testCsvRequiresNameAndAgeColumns() {
+        assertThatThrownBy(() -> StudentRowReader.csv(reader("name,faculty\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StudentRowReader.csv(reader("")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testNdjsonRows() throws Exception {
+        StudentRowReader reader = StudentRowReader.ndjson(reader("""
+                {"name":"Luna","age":14,"extra":true}
+                {"name":"Broken"
+                """), new ObjectMapper());
+
+        assertThat(reader.next()).isEqualTo(StudentRowReader.Row.of(1, new StudentImportRow("Luna", 14, null)));
+        StudentRowReader.Row broken = reader.next();
+        assertThat(broken.line()).isEqualTo(2);
+        assertThat(broken.error()).startsWith("malformed JSON");
+        assertThat(reader.next()).isNull();
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+}
@@ -0,0 +1,30 @@
+package ru.hogwarts.school.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrigramsTest {
+
+    @Test
+    void testTrigramsMatchPgTrgm() {
+        // SELECT show_trgm('Cat') -> {"  c"," ca","at ",cat}
+        assertThat(Trigrams.of("Cat")).containsExactlyInAnyOrder("  c", " ca", "cat", "at ");
+        assertThat(Trigrams.of("a-b")).containsExactlyInAnyOrder("  a", " a ", "  b", " b ");
+        assertThat(Trigrams.of(" - ")).isEmpty();
+    }
+
+    @Test
+    void testWordSimilarity() {
+        Set<String> query = Trigrams.of("Longbotom");
+
+        assertThat(Trigrams.wordSimilarity(query, "Neville Longbottom"))
+                .isGreaterThanOrEqualTo(Trigrams.WORD_SIMILARITY_THRESHOLD);
+        assertThat(Trigrams.wordSimilarity(query, "Luna Lovegood"))
+                .isLessThan(Trigrams.WORD_SIMILARITY_THRESHOLD);
+        assertThat(Trigrams.wordSimilarity(Trigrams.of("harry"), "HARRY POTTER")).isEqualTo(1.0);
+        assertThat(Trigrams.wordSimilarity(Set.of(), "Harry")).isZero();
+    }
+}